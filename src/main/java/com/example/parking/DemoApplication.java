@@ -2,12 +2,21 @@ package com.example.parking;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableAsync
+@EnableScheduling
 public class DemoApplication {
+
+  // Number of startup steps recorded for the startup report (see StartupTimingReporter and /actuator/startup)
+  private static final int STARTUP_STEPS_CAPACITY = 4096;
+
   public static void main(String[] args) {
-    SpringApplication.run(DemoApplication.class, args);
+    SpringApplication application = new SpringApplication(DemoApplication.class);
+    application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+    application.run(args);
   }
 }
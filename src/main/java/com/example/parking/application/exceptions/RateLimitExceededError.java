@@ -0,0 +1,18 @@
+package com.example.parking.application.exceptions;
+
+import lombok.Getter;
+
+/**
+ * A client sent more requests than allowed. Mapped to a 429 with a Retry-After header.
+ */
+@Getter
+public class RateLimitExceededError extends ApplicationError {
+
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededError(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+}
@@ -0,0 +1,18 @@
+package com.example.parking.application.exceptions;
+
+import lombok.Getter;
+
+/**
+ * The service has too many requests in progress to accept a new one. Mapped to a 503 with a Retry-After header.
+ */
+@Getter
+public class ServiceSaturatedError extends ApplicationError {
+
+  private final long retryAfterSeconds;
+
+  public ServiceSaturatedError(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+}
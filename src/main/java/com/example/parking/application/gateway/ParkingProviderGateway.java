@@ -1,5 +1,6 @@
 package com.example.parking.application.gateway;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -14,4 +15,9 @@ public interface ParkingProviderGateway {
    */
   public CompletableFuture<Optional<ParkingProvider>> getNearestProvider(double lat, double lng);
 
+  /**
+   * @return all the known providers.
+   */
+  public CompletableFuture<List<ParkingProvider>> getAllProviders();
+
 }
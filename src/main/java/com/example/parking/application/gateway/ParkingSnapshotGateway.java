@@ -0,0 +1,20 @@
+package com.example.parking.application.gateway;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.parking.application.model.ParkingSnapshot;
+
+public interface ParkingSnapshotGateway {
+
+  /**
+   * @return the snapshots saved before the last restart, marked as stale. Unreadable snapshots are skipped.
+   */
+  public List<ParkingSnapshot> loadAll();
+
+  /**
+   * Replaces the saved snapshot of the provider.
+   */
+  public CompletableFuture<Void> save(ParkingSnapshot snapshot);
+
+}
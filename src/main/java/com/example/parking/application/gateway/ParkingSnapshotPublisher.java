@@ -0,0 +1,14 @@
+package com.example.parking.application.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.example.parking.application.model.ParkingSnapshot;
+
+public interface ParkingSnapshotPublisher {
+
+  /**
+   * Sends the snapshot to the other replicas of the service. A replica that cannot be reached is skipped.
+   */
+  public CompletableFuture<Void> publish(ParkingSnapshot snapshot);
+
+}
@@ -0,0 +1,24 @@
+package com.example.parking.application.gateway;
+
+import java.time.Duration;
+
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+/**
+ * Leases shared by the replicas of the service to agree on which one (the owner) polls each provider.
+ * A lease is owned until it expires, the owner must renew it before.
+ */
+public interface ProviderLeaseGateway {
+
+  /**
+   * Acquires the lease of the provider if it is free or expired, renews it if it is already owned by the node.
+   * @return true if the node owns the lease for the next 'ttl'.
+   */
+  public boolean tryAcquire(ParkingProviderName providerName, String nodeId, Duration ttl);
+
+  /**
+   * Releases the lease if it is owned by the node, so that another node can take it over without waiting for its expiry.
+   */
+  public void release(ParkingProviderName providerName, String nodeId);
+
+}
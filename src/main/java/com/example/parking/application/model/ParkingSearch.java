@@ -0,0 +1,14 @@
+package com.example.parking.application.model;
+
+import com.example.parking.domain.ParkingProvider;
+
+/**
+ * First step of a search: the provider of the area and its current snapshot, before the distances are computed.
+ * The result of the search only depends on (provider, snapshot version, origin cell) since the distances are
+ * cached by cell of the origin (see DistanceCache), so it can be used to know if the result changed without
+ * computing it.
+ */
+public record ParkingSearch(ParkingProvider provider, ParkingSnapshot snapshot, double lat, double lng,
+    long originCell) {
+
+}
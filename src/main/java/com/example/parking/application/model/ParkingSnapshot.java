@@ -0,0 +1,41 @@
+package com.example.parking.application.model;
+
+import java.time.Instant;
+import java.util.List;
+
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+/**
+ * The last list of parkings fetched from a provider.
+ * The version increases each time the provider is fetched.
+ * A snapshot is stale when we do not know if it is still up to date (ex: it was read from the disk after a restart),
+ * it can be served but it must be refreshed.
+ * NOTE: the parkings must not be modified, the snapshot is shared between the requests.
+ */
+public record ParkingSnapshot(ParkingProviderName providerName, long version, Instant fetchedAt,
+    List<ParkingDtoOut> parkings, boolean stale) {
+
+  public ParkingSnapshot asStale() {
+    return new ParkingSnapshot(providerName, version, fetchedAt, parkings, true);
+  }
+
+  /**
+   * @return a copy of the parkings, the caller can modify them.
+   */
+  public List<ParkingDtoOut> copyParkings() {
+    return parkings.stream()
+        .map(parking -> {
+          ParkingDtoOut copy = new ParkingDtoOut();
+          copy.setId(parking.getId());
+          copy.setLat(parking.getLat());
+          copy.setLng(parking.getLng());
+          copy.setAvailablePlaces(parking.getAvailablePlaces());
+          copy.setCapacity(parking.getCapacity());
+          copy.setName(parking.getName());
+          return copy;
+        })
+        .toList();
+  }
+
+}
@@ -1,10 +1,19 @@
 package com.example.parking.application.model.out;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import lombok.Data;
 
+/**
+ * The filter lets the controller serialize only the fields requested by the client (see the 'fields' parameter).
+ * When no filter is provided, all the fields are serialized.
+ */
 @Data
+@JsonFilter(ParkingDtoOut.FIELDS_FILTER)
 public class ParkingDtoOut {
 
+  public static final String FIELDS_FILTER = "parkingFields";
+
   private int id;
 
   private double lat;
@@ -0,0 +1,189 @@
+package com.example.parking.application.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.domain.ParkingProvider;
+
+/**
+ * Cache in front of the DistanceProviderApiClient, since each call is slow and paid.
+ * Parkings do not move, so the distance only depends on where the user is: the key is
+ * (cell of the origin, provider id, parking id), the origin being rounded to a grid of 'cellSizeDegrees'.
+ * The price is a small error on the distance (at most the size of a cell, ~150m with the default 0.001 degrees).
+ *
+ * The entries are stored in primitive arrays (no boxing, no allocation per entry) organized as a set-associative cache:
+ * a key can only be in one of the WAYS slots of its set. When the set is full, the oldest entry is replaced.
+ * So the size is bounded and the entries also expire after 'ttlSeconds' (road works, new one way streets...).
+ */
+@Service
+public class DistanceCache {
+
+  private static final int WAYS = 4;
+
+  private static final int LOCK_STRIPES = 64;
+
+  private final DistanceProviderApiClient distanceProviderApiClient;
+
+  private final double cellSizeDegrees;
+
+  private final long ttlNanos;
+
+  private final int setMask;
+
+  private final long[] cellKeys;
+
+  private final long[] parkingKeys;
+
+  private final int[] distances_m;
+
+  private final long[] insertedAtNanos;
+
+  private final boolean[] occupied;
+
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  private final LongAdder hits = new LongAdder();
+
+  private final LongAdder misses = new LongAdder();
+
+  public DistanceCache(DistanceProviderApiClient distanceProviderApiClient,
+      @Value("${parking.distance-cache.cell-size-degrees:0.001}") double cellSizeDegrees,
+      @Value("${parking.distance-cache.max-entries:65536}") int maxEntries,
+      @Value("${parking.distance-cache.ttl-seconds:86400}") long ttlSeconds) {
+
+    this.distanceProviderApiClient = distanceProviderApiClient;
+    this.cellSizeDegrees = cellSizeDegrees;
+    this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+    // The number of sets must be a power of 2 to compute the set of a key with a mask
+    int sets = Integer.highestOneBit(Math.max(1, maxEntries / WAYS));
+    this.setMask = sets - 1;
+    this.cellKeys = new long[sets * WAYS];
+    this.parkingKeys = new long[sets * WAYS];
+    this.distances_m = new int[sets * WAYS];
+    this.insertedAtNanos = new long[sets * WAYS];
+    this.occupied = new boolean[sets * WAYS];
+
+    for (int i = 0; i < LOCK_STRIPES; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  public CompletableFuture<Integer> getDistanceInMeters(double originLat, double originLng, ParkingProvider provider,
+      ParkingDtoOut parking) {
+
+    long cellKey = cellKey(originLat, originLng);
+    long parkingKey = ((long) provider.getId() << 32) | (parking.getId() & 0xFFFFFFFFL);
+    int set = set(cellKey, parkingKey);
+
+    int cached = get(set, cellKey, parkingKey);
+    if (cached >= 0) {
+      hits.increment();
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    misses.increment();
+    return distanceProviderApiClient
+        .getDistanceInMeters(originLat, originLng, parking.getLat(), parking.getLng())
+        .thenApply(distance_m -> {
+          if (distance_m != null && distance_m >= 0) {
+            put(set, cellKey, parkingKey, distance_m);
+          }
+          return distance_m;
+        });
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public double getHitRatio() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 0 : (double) hitCount / total;
+  }
+
+  /**
+   * Each hit is a call to the distance provider that we did not make.
+   */
+  public long getSavedCalls() {
+    return hits.sum();
+  }
+
+  /**
+   * @return the cell of the grid containing the position, all the origins of a cell share the cached distances.
+   */
+  public long cellKey(double lat, double lng) {
+    int latCell = (int) Math.floor(lat / cellSizeDegrees);
+    int lngCell = (int) Math.floor(lng / cellSizeDegrees);
+    return ((long) latCell << 32) | (lngCell & 0xFFFFFFFFL);
+  }
+
+  private int set(long cellKey, long parkingKey) {
+    long hash = cellKey * 0x9E3779B97F4A7C15L + parkingKey;
+    hash ^= hash >>> 29;
+    hash *= 0xBF58476D1CE4E5B9L;
+    hash ^= hash >>> 32;
+    return (int) hash & setMask;
+  }
+
+  /**
+   * @return the cached distance, -1 if not found or expired.
+   */
+  private int get(int set, long cellKey, long parkingKey) {
+    long now = System.nanoTime();
+    synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+      for (int slot = set * WAYS; slot < (set + 1) * WAYS; slot++) {
+        if (occupied[slot] && cellKeys[slot] == cellKey && parkingKeys[slot] == parkingKey) {
+          if (now - insertedAtNanos[slot] >= ttlNanos) {
+            occupied[slot] = false;
+            return -1;
+          }
+          return distances_m[slot];
+        }
+      }
+    }
+    return -1;
+  }
+
+  private void put(int set, long cellKey, long parkingKey, int distance_m) {
+    long now = System.nanoTime();
+    synchronized (locks[set & (LOCK_STRIPES - 1)]) {
+      int target = -1;
+      int oldest = set * WAYS;
+      for (int slot = set * WAYS; slot < (set + 1) * WAYS; slot++) {
+        if (occupied[slot] && cellKeys[slot] == cellKey && parkingKeys[slot] == parkingKey) {
+          // Already added by a concurrent search
+          target = slot;
+          break;
+        }
+        if (!occupied[slot] && target < 0) {
+          target = slot;
+        }
+        if (occupied[slot] && insertedAtNanos[slot] - insertedAtNanos[oldest] < 0) {
+          oldest = slot;
+        }
+      }
+      if (target < 0) {
+        // The set is full, the oldest entry is replaced
+        target = oldest;
+      }
+
+      cellKeys[target] = cellKey;
+      parkingKeys[target] = parkingKey;
+      distances_m[target] = distance_m;
+      insertedAtNanos[target] = now;
+      occupied[target] = true;
+    }
+  }
+
+}
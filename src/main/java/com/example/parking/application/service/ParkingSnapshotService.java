@@ -0,0 +1,240 @@
+package com.example.parking.application.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.parking.application.exceptions.ApplicationError;
+import com.example.parking.application.gateway.ParkingProviderGateway;
+import com.example.parking.application.gateway.ParkingSnapshotGateway;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.domain.ParkingProvider;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the last snapshot of each provider in memory (and on disk through the ParkingSnapshotGateway) so that
+ * the searches do not call the provider api each time.
+ * - At startup the snapshots saved on disk are loaded as stale: they are served right away and refreshed in background.
+ * - A stale or expired snapshot is served as is and refreshed in background (stale-while-revalidate).
+ * - Only the first search for a provider without any snapshot waits for the provider api.
+ * - A single call per provider is in progress at any time, the concurrent searches share it.
+ * - If the refresh fails, the last known good snapshot keeps being served and the provider is not called again
+ *   before a backoff ('parking.snapshot.retry-backoff-seconds', doubled after each consecutive failure).
+ * In cluster mode (parking.cluster.enabled) the refreshes are driven by the ProviderRefreshCoordinator: only the
+ * owner of a provider polls it and the other replicas receive its snapshots (see accept). The searches only
+ * fetch the provider when there is no snapshot at all, or when the snapshot is older than
+ * 'parking.cluster.max-snapshot-age-seconds': then we are not receiving the snapshots of the owner (not in its
+ * peers, push errors...) and we refresh it ourselves instead of serving it forever.
+ */
+@Slf4j
+@Service
+public class ParkingSnapshotService {
+
+  private final ParkingProviderApiClientFactory apiClientFactory;
+
+  private final ParkingSnapshotGateway snapshotGateway;
+
+  private final ParkingProviderGateway parkingProviderGateway;
+
+  private static final int MAX_BACKOFF_DOUBLINGS = 6;
+
+  private final Duration ttl;
+
+  private final Duration retryBackoff;
+
+  private final boolean clusterMode;
+
+  private final Duration clusterMaxAge;
+
+  private final Map<ParkingProviderName, ParkingSnapshot> snapshots = new ConcurrentHashMap<>();
+
+  private final Map<ParkingProviderName, CompletableFuture<ParkingSnapshot>> refreshes = new ConcurrentHashMap<>();
+
+  private final Map<ParkingProviderName, FailedRefresh> failedRefreshes = new ConcurrentHashMap<>();
+
+  /**
+   * This service is created at startup even with the lazy profile (see StartupConfig) to load the saved snapshots.
+   * The api clients and the provider gateway are only needed by the refreshes: they are injected as lazy proxies
+   * so that they (and their RestClients, @Async proxies...) are still created on first use.
+   */
+  public ParkingSnapshotService(@Lazy ParkingProviderApiClientFactory apiClientFactory,
+      ParkingSnapshotGateway snapshotGateway,
+      @Lazy ParkingProviderGateway parkingProviderGateway,
+      @Value("${parking.snapshot.ttl-seconds:60}") long ttlSeconds,
+      @Value("${parking.snapshot.retry-backoff-seconds:5}") long retryBackoffSeconds,
+      @Value("${parking.cluster.enabled:false}") boolean clusterMode,
+      @Value("${parking.cluster.max-snapshot-age-seconds:120}") long clusterMaxAgeSeconds) {
+    this.apiClientFactory = apiClientFactory;
+    this.snapshotGateway = snapshotGateway;
+    this.parkingProviderGateway = parkingProviderGateway;
+    this.ttl = Duration.ofSeconds(ttlSeconds);
+    this.retryBackoff = Duration.ofSeconds(retryBackoffSeconds);
+    this.clusterMode = clusterMode;
+    this.clusterMaxAge = Duration.ofSeconds(clusterMaxAgeSeconds);
+  }
+
+  @PostConstruct
+  public void loadSavedSnapshots() {
+    snapshotGateway.loadAll().forEach(snapshot -> {
+      log.info("Loaded snapshot {} of {} with {} parkings", snapshot.version(), snapshot.providerName(),
+          snapshot.parkings().size());
+      snapshots.put(snapshot.providerName(), snapshot.asStale());
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void refreshStaleSnapshots() {
+    if (clusterMode || snapshots.isEmpty()) {
+      return;
+    }
+    parkingProviderGateway.getAllProviders()
+        .thenAccept(providers -> providers.stream()
+            .filter(provider -> snapshots.containsKey(provider.getName()))
+            .forEach(this::refresh));
+  }
+
+  /**
+   * @return the current snapshot of the provider, its parkings must not be modified (see ParkingSnapshot.copyParkings).
+   */
+  public CompletableFuture<ParkingSnapshot> getSnapshot(ParkingProvider provider) {
+
+    ParkingSnapshot snapshot = snapshots.get(provider.getName());
+
+    if (snapshot == null) {
+      if (isBackingOff(provider.getName())) {
+        return CompletableFuture.failedFuture(
+            new ApplicationError("The provider " + provider.getName() + " is unavailable, retry later"));
+      }
+      return refresh(provider);
+    }
+
+    if (needsRefresh(snapshot) && !isBackingOff(provider.getName())) {
+      refresh(provider);
+    }
+
+    return CompletableFuture.completedFuture(snapshot);
+  }
+
+  /**
+   * Receives a snapshot fetched by another replica.
+   * @return false if the snapshot was ignored because we already have the same or a more recent version.
+   */
+  public boolean accept(ParkingSnapshot snapshot) {
+    ParkingSnapshot received = new ParkingSnapshot(snapshot.providerName(), snapshot.version(), snapshot.fetchedAt(),
+        snapshot.parkings(), false);
+
+    ParkingSnapshot current = snapshots.merge(snapshot.providerName(), received,
+        (previous, next) -> next.version() > previous.version() ? next : previous);
+
+    if (current != received) {
+      return false;
+    }
+    snapshotGateway.save(received);
+    return true;
+  }
+
+  /**
+   * Fetches the provider and replaces its snapshot. There is a single refresh per provider at a time.
+   * @return the new snapshot.
+   */
+  public CompletableFuture<ParkingSnapshot> refresh(ParkingProvider provider) {
+
+    CompletableFuture<ParkingSnapshot> refresh = new CompletableFuture<>();
+    CompletableFuture<ParkingSnapshot> inProgress = refreshes.putIfAbsent(provider.getName(), refresh);
+    if (inProgress != null) {
+      return inProgress;
+    }
+
+    CompletableFuture<ParkingSnapshot> fetch;
+    try {
+      fetch = fetchSnapshot(provider);
+    }
+    catch (RuntimeException e) {
+      // Otherwise the refresh would stay in progress forever
+      fetch = CompletableFuture.failedFuture(e);
+    }
+
+    fetch.whenComplete((snapshot, e) -> {
+      refreshes.remove(provider.getName(), refresh);
+      if (e != null) {
+        FailedRefresh failure = failedRefreshes.merge(provider.getName(), new FailedRefresh(1, Instant.now()),
+            (previous, next) -> new FailedRefresh(previous.attempts() + 1, next.at()));
+        log.warn("Error refreshing the parkings of {}, the last known snapshot is kept, next attempt in {}s",
+            provider.getName(), backoff(failure).toSeconds(), e);
+        refresh.completeExceptionally(e);
+      }
+      else {
+        failedRefreshes.remove(provider.getName());
+        refresh.complete(snapshot);
+      }
+    });
+
+    return refresh;
+  }
+
+  private CompletableFuture<ParkingSnapshot> fetchSnapshot(ParkingProvider provider) {
+
+    Optional<ParkingProviderApiClient> apiClient = apiClientFactory.getConverter(provider);
+
+    if (apiClient.isEmpty()) {
+      return CompletableFuture.failedFuture(
+          new ApplicationError("No api client found for provider " + provider.getName()));
+    }
+
+    return apiClient.get()
+        .fetchParkings(provider)
+        .thenApply(parkings -> {
+          ParkingSnapshot previous = snapshots.get(provider.getName());
+          Instant now = Instant.now();
+          // The version is the fetch time, but it must increase even if the clock goes back
+          long version = Math.max(now.toEpochMilli(), previous == null ? 0 : previous.version() + 1);
+
+          ParkingSnapshot snapshot = new ParkingSnapshot(provider.getName(), version, now, List.copyOf(parkings),
+              false);
+          snapshots.put(provider.getName(), snapshot);
+          snapshotGateway.save(snapshot);
+          return snapshot;
+        });
+  }
+
+  private boolean needsRefresh(ParkingSnapshot snapshot) {
+    if (clusterMode) {
+      // The owner refreshes it, unless we stopped receiving its snapshots
+      return isOlderThan(snapshot, clusterMaxAge);
+    }
+    return snapshot.stale() || isOlderThan(snapshot, ttl);
+  }
+
+  private boolean isBackingOff(ParkingProviderName providerName) {
+    FailedRefresh failure = failedRefreshes.get(providerName);
+    return failure != null && failure.at().plus(backoff(failure)).isAfter(Instant.now());
+  }
+
+  private Duration backoff(FailedRefresh failure) {
+    return retryBackoff.multipliedBy(1L << Math.min(failure.attempts() - 1, MAX_BACKOFF_DOUBLINGS));
+  }
+
+  private boolean isOlderThan(ParkingSnapshot snapshot, Duration maxAge) {
+    return snapshot.fetchedAt().plus(maxAge).isBefore(Instant.now());
+  }
+
+  /**
+   * The consecutive failed refreshes of a provider and the time of the last one.
+   */
+  private record FailedRefresh(int attempts, Instant at) {
+  }
+
+}
@@ -0,0 +1,102 @@
+package com.example.parking.application.service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.parking.application.gateway.ParkingProviderGateway;
+import com.example.parking.application.gateway.ParkingSnapshotPublisher;
+import com.example.parking.application.gateway.ProviderLeaseGateway;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.domain.ParkingProvider;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cluster mode: with many replicas, each provider must be polled by one replica only (upstream load, rate limits).
+ * Periodically, for each provider, each replica tries to acquire (or renew) the lease of the provider:
+ * - the owner of the lease fetches the provider and publishes the snapshot to the other replicas.
+ * - the other replicas do nothing, they serve the snapshots they receive.
+ * If the owner dies its lease expires and the next replica that tries to acquire it becomes the owner.
+ * The lease ttl must be longer than the refresh interval, otherwise the owner would lose it between two refreshes.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class ProviderRefreshCoordinator {
+
+  private final ParkingProviderGateway parkingProviderGateway;
+
+  private final ProviderLeaseGateway leaseGateway;
+
+  private final ParkingSnapshotService parkingSnapshotService;
+
+  private final ParkingSnapshotPublisher snapshotPublisher;
+
+  private final String nodeId;
+
+  private final Duration leaseTtl;
+
+  private final Set<ParkingProviderName> ownedProviders = ConcurrentHashMap.newKeySet();
+
+  // Created at startup to schedule the refreshes (see StartupConfig), its dependencies are created on first use
+  public ProviderRefreshCoordinator(@Lazy ParkingProviderGateway parkingProviderGateway,
+      ProviderLeaseGateway leaseGateway,
+      ParkingSnapshotService parkingSnapshotService,
+      @Lazy ParkingSnapshotPublisher snapshotPublisher,
+      @Value("${parking.cluster.node-id:}") String nodeId,
+      @Value("${parking.cluster.lease-ttl-seconds:90}") long leaseTtlSeconds) {
+    this.parkingProviderGateway = parkingProviderGateway;
+    this.leaseGateway = leaseGateway;
+    this.parkingSnapshotService = parkingSnapshotService;
+    this.snapshotPublisher = snapshotPublisher;
+    this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
+  }
+
+  @Scheduled(fixedDelayString = "${parking.cluster.refresh-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+  public void refreshOwnedProviders() {
+    parkingProviderGateway.getAllProviders()
+        .thenAccept(providers -> providers.forEach(this::refreshIfOwner))
+        .exceptionally(e -> {
+          log.warn("Error refreshing the providers", e);
+          return null;
+        });
+  }
+
+  @PreDestroy
+  public void releaseLeases() {
+    ownedProviders.forEach(providerName -> leaseGateway.release(providerName, nodeId));
+  }
+
+  private void refreshIfOwner(ParkingProvider provider) {
+
+    if (!leaseGateway.tryAcquire(provider.getName(), nodeId, leaseTtl)) {
+      if (ownedProviders.remove(provider.getName())) {
+        log.info("Node {} lost the lease of {}", nodeId, provider.getName());
+      }
+      return;
+    }
+
+    if (ownedProviders.add(provider.getName())) {
+      log.info("Node {} is now the owner of {}", nodeId, provider.getName());
+    }
+
+    parkingSnapshotService.refresh(provider)
+        .thenCompose(snapshotPublisher::publish)
+        .exceptionally(e -> {
+          // Already logged by the snapshot service, the replicas keep their last snapshot
+          return null;
+        });
+  }
+
+}
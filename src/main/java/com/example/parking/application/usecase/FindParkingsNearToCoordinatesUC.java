@@ -9,10 +9,10 @@ import org.springframework.stereotype.Service;
 
 import com.example.parking.application.exceptions.ApplicationError;
 import com.example.parking.application.gateway.ParkingProviderGateway;
+import com.example.parking.application.model.ParkingSearch;
 import com.example.parking.application.model.out.ParkingDtoOut;
-import com.example.parking.application.service.DistanceProviderApiClient;
-import com.example.parking.application.service.ParkingProviderApiClient;
-import com.example.parking.application.service.ParkingProviderApiClientFactory;
+import com.example.parking.application.service.DistanceCache;
+import com.example.parking.application.service.ParkingSnapshotService;
 import com.example.parking.domain.ParkingProvider;
 
 import lombok.extern.slf4j.Slf4j;
@@ -21,11 +21,12 @@ import lombok.extern.slf4j.Slf4j;
  * Use case to find the nearest parking provider to a given location.
  * Sequence of operations:
  * 1. Get the nearest parking provider to the given location
- * 2. Pick the correct ProviderApiClient
- * 3. Fetch the parkings from the provider using the client
- * 4. Calculate the distance for each parking
- * 5. Sort the parkings by distance
- * 6. Return the sorted list of parkings
+ * 2. Get the parkings of the provider (from its last snapshot or by calling its api, see ParkingSnapshotService)
+ * 3. Calculate the distance for each parking (through the DistanceCache)
+ * 4. Sort the parkings by distance
+ * 5. Return the sorted list of parkings
+ * Steps 1-2 (prepare) and 3-5 (execute) can be called separately, so that the caller can skip the distances
+ * when it already has the result of the search (ex: conditional requests).
  */
 @Service
 @Slf4j
@@ -33,20 +34,24 @@ public class FindParkingsNearToCoordinatesUC {
 
   private final ParkingProviderGateway parkingProviderGtw;
 
-  private final ParkingProviderApiClientFactory apiClientFactory;
+  private final ParkingSnapshotService parkingSnapshotService;
 
-  private final DistanceProviderApiClient distanceProviderApiClient;
+  private final DistanceCache distanceCache;
 
   public FindParkingsNearToCoordinatesUC(ParkingProviderGateway parkingProviderGateway,
-      ParkingProviderApiClientFactory parkingProviderApiConverterRepository,
-      DistanceProviderApiClient distanceProviderApiClient) {
+      ParkingSnapshotService parkingSnapshotService,
+      DistanceCache distanceCache) {
 
     this.parkingProviderGtw = parkingProviderGateway;
-    this.apiClientFactory = parkingProviderApiConverterRepository;
-    this.distanceProviderApiClient = distanceProviderApiClient;
+    this.parkingSnapshotService = parkingSnapshotService;
+    this.distanceCache = distanceCache;
   }
 
   public CompletableFuture<List<ParkingDtoOut>> execute(double lat, double lng) {
+    return prepare(lat, lng).thenCompose(this::execute);
+  }
+
+  public CompletableFuture<ParkingSearch> prepare(double lat, double lng) {
 
     return parkingProviderGtw.getNearestProvider(lat, lng)
         .thenCompose(providerOpt -> {
@@ -55,33 +60,31 @@ public class FindParkingsNearToCoordinatesUC {
             throw new ApplicationError("No provider nearby");
           }
 
-          return fetchParkingListFromProvider(providerOpt.get(), lat, lng);
+          return fetchSnapshotFromProvider(providerOpt.get(), lat, lng);
         });
   }
 
-  private CompletableFuture<List<ParkingDtoOut>> fetchParkingListFromProvider(ParkingProvider provider, double lat,
-      double lng) {
-
-    Optional<ParkingProviderApiClient> apiClient = apiClientFactory.getConverter(provider);
+  public CompletableFuture<List<ParkingDtoOut>> execute(ParkingSearch search) {
+    return setParkingsDistance(search.provider(), search.snapshot().copyParkings(), search.lat(), search.lng());
+  }
 
-    if (apiClient.isEmpty()) {
-      throw new ApplicationError("No api client found for provider " + provider.getName());
-    }
+  private CompletableFuture<ParkingSearch> fetchSnapshotFromProvider(ParkingProvider provider, double lat,
+      double lng) {
 
-    return apiClient.get()
-        .fetchParkings(provider)
+    return parkingSnapshotService
+        .getSnapshot(provider)
         .exceptionally(e -> {
           throw new ApplicationError("No parking available");
         })
-        .thenCompose(parkings -> setParkingsDistance(parkings, lat, lng));
+        .thenApply(snapshot -> new ParkingSearch(provider, snapshot, lat, lng, distanceCache.cellKey(lat, lng)));
   }
 
-  private CompletableFuture<List<ParkingDtoOut>> setParkingsDistance(List<ParkingDtoOut> parkings, double lat,
-      double lng) {
+  private CompletableFuture<List<ParkingDtoOut>> setParkingsDistance(ParkingProvider provider,
+      List<ParkingDtoOut> parkings, double lat, double lng) {
 
     List<CompletableFuture<Optional<ParkingDtoOut>>> parkingFutures = parkings.stream()// This could be parallelized
-        .map(parking -> distanceProviderApiClient
-            .getDistanceInMeters(lat, lng, parking.getLat(), parking.getLng())
+        .map(parking -> distanceCache
+            .getDistanceInMeters(lat, lng, provider, parking)
             .thenApply(distance -> {
               parking.setDistance_m(distance);
               return Optional.of(parking);
@@ -0,0 +1,106 @@
+package com.example.parking.infra.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of requests in progress. The limit is not fixed, it follows the measured latency
+ * (gradient algorithm, same idea as Netflix's concurrency-limits):
+ * - we keep a slow moving average of the latency (the 'long' rtt), it represents the latency without queuing.
+ * - for each sample, gradient = tolerance * longRtt / rtt (between 0.5 and 1).
+ *   If the latency grows because requests are queuing somewhere (typically an upstream slowing down)
+ *   the gradient goes down and so does the limit.
+ * - a small queue (sqrt of the limit) is added so that the limit can grow again when the latency is fine.
+ * A dropped request (timeout) divides the limit by the backoff ratio, like the 'MD' of AIMD.
+ * This class is thread safe.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  // Number of samples of the moving average of the 'long' rtt
+  private static final int LONG_RTT_WINDOW = 600;
+
+  // How fast the limit follows the new computed value
+  private static final double SMOOTHING = 0.2;
+
+  private final int minLimit;
+
+  private final int maxLimit;
+
+  private final double rttTolerance;
+
+  private final double backoffRatio;
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+
+  private volatile double limit;
+
+  // Guarded by 'this'
+  private double longRttNanos;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+      double backoffRatio) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.rttTolerance = rttTolerance;
+    this.backoffRatio = backoffRatio;
+    this.limit = initialLimit;
+  }
+
+  /**
+   * @return true if the request can proceed. In this case one of onSample/onDropped MUST be called when it completes.
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= getLimit()) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  public void onSample(long rttNanos) {
+    int inFlightAtCompletion = inFlight.getAndDecrement();
+    rttNanos = Math.max(1, rttNanos);
+
+    synchronized (this) {
+      if (longRttNanos == 0) {
+        longRttNanos = rttNanos;
+      }
+      else {
+        longRttNanos += (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+      }
+
+      // The limit is not used, no reason to raise it: we do not have any information on how the system behaves
+      if (inFlightAtCompletion < limit / 2) {
+        return;
+      }
+
+      double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / rttNanos));
+      double newLimit = limit * gradient + Math.sqrt(limit);
+      setLimit(limit * (1 - SMOOTHING) + newLimit * SMOOTHING);
+    }
+  }
+
+  public void onDropped() {
+    inFlight.decrementAndGet();
+
+    synchronized (this) {
+      setLimit(limit * backoffRatio);
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private void setLimit(double newLimit) {
+    limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.example.parking.infra.admission;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A token bucket per client. Each bucket holds at most 'capacity' tokens (the allowed burst) and
+ * is refilled at 'refillPerSecond' tokens per second. A request consumes one token.
+ * To keep the memory bounded, the buckets are kept in LRU maps holding at most 'maxClients' buckets in total:
+ * when a map is full the least recently used client is forgotten (it will get a full bucket if it comes back).
+ * The clients are spread over SEGMENTS maps, each with its own lock, so that the requests do not all wait
+ * on the same lock.
+ */
+public class ClientRateLimiter {
+
+  private static final int SEGMENTS = 16;
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  private final int capacity;
+
+  private final double refillPerNano;
+
+  private final LongSupplier nanoClock;
+
+  public ClientRateLimiter(int capacity, double refillPerSecond, int maxClients) {
+    this(capacity, refillPerSecond, maxClients, System::nanoTime);
+  }
+
+  ClientRateLimiter(int capacity, double refillPerSecond, int maxClients, LongSupplier nanoClock) {
+    this.capacity = capacity;
+    this.refillPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.nanoClock = nanoClock;
+
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment(Math.max(1, maxClients / SEGMENTS));
+    }
+  }
+
+  /**
+   * @return 0 if the request is allowed, otherwise the number of nanos to wait before the next token is available.
+   */
+  public long tryConsume(String clientId) {
+    long now = nanoClock.getAsLong();
+    Segment segment = segmentOf(clientId);
+
+    synchronized (segment) {
+      return segment.computeIfAbsent(clientId, id -> new TokenBucket(now)).tryConsume(now);
+    }
+  }
+
+  int getClientCount() {
+    int count = 0;
+    for (Segment segment : segments) {
+      synchronized (segment) {
+        count += segment.size();
+      }
+    }
+    return count;
+  }
+
+  private Segment segmentOf(String clientId) {
+    int hash = clientId.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+  }
+
+  /**
+   * LRU map: in access order, the eldest entry is removed when the map is full.
+   */
+  private static class Segment extends LinkedHashMap<String, TokenBucket> {
+
+    private final int maxSize;
+
+    Segment(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, TokenBucket> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  // Guarded by the lock of its segment
+  private class TokenBucket {
+
+    private double tokens = capacity;
+
+    private long lastRefillNanos;
+
+    TokenBucket(long nowNanos) {
+      this.lastRefillNanos = nowNanos;
+    }
+
+    long tryConsume(long nowNanos) {
+      tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * refillPerNano);
+      lastRefillNanos = nowNanos;
+
+      if (tokens >= 1) {
+        tokens--;
+        return 0;
+      }
+      return (long) Math.ceil((1 - tokens) / refillPerNano);
+    }
+  }
+
+}
@@ -0,0 +1,134 @@
+package com.example.parking.infra.admission;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.parking.application.exceptions.RateLimitExceededError;
+import com.example.parking.application.exceptions.ServiceSaturatedError;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admission control in front of the parking search.
+ * A request is rejected right away (instead of waiting in the executor queue until it times out) when:
+ * - its client exceeded its rate limit (429)
+ * - the service already has as many searches in progress as the adaptive limit allows (503)
+ * An admitted search has a deadline ('timeout-ms'): after it the search fails with a 503 and its permit is released,
+ * even if the upstream never answers. Otherwise a hung upstream would keep the permits forever.
+ * The limit, the number of searches in progress and the rejections are exported as metrics (see /actuator/metrics).
+ */
+@Slf4j
+@Component
+public class SearchAdmissionControl {
+
+  private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+  private final ClientRateLimiter clientRateLimiter;
+
+  private final long retryAfterSeconds;
+
+  private final long timeoutMs;
+
+  private final Counter saturatedRejections;
+
+  private final Counter rateLimitedRejections;
+
+  private final Counter timeouts;
+
+  public SearchAdmissionControl(MeterRegistry meterRegistry,
+      @Value("${parking.admission.initial-limit:20}") int initialLimit,
+      @Value("${parking.admission.min-limit:4}") int minLimit,
+      @Value("${parking.admission.max-limit:200}") int maxLimit,
+      @Value("${parking.admission.rtt-tolerance:2.0}") double rttTolerance,
+      @Value("${parking.admission.backoff-ratio:0.9}") double backoffRatio,
+      @Value("${parking.admission.retry-after-seconds:1}") long retryAfterSeconds,
+      @Value("${parking.admission.timeout-ms:5000}") long timeoutMs,
+      @Value("${parking.rate-limit.capacity:20}") int rateLimitCapacity,
+      @Value("${parking.rate-limit.refill-per-second:5}") double rateLimitRefillPerSecond,
+      @Value("${parking.rate-limit.max-clients:10000}") int rateLimitMaxClients) {
+
+    this.concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, rttTolerance,
+        backoffRatio);
+    this.clientRateLimiter = new ClientRateLimiter(rateLimitCapacity, rateLimitRefillPerSecond, rateLimitMaxClients);
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.timeoutMs = timeoutMs;
+
+    Gauge.builder("parking.search.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+        .register(meterRegistry);
+    Gauge.builder("parking.search.concurrency.inflight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+        .register(meterRegistry);
+    this.saturatedRejections = Counter.builder("parking.search.rejected")
+        .tag("reason", "saturated")
+        .register(meterRegistry);
+    this.rateLimitedRejections = Counter.builder("parking.search.rejected")
+        .tag("reason", "rate_limited")
+        .register(meterRegistry);
+    this.timeouts = Counter.builder("parking.search.timeouts")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Runs the search if it is admitted, otherwise throws a RateLimitExceededError or a ServiceSaturatedError.
+   * The latency of the search is fed back to the concurrency limiter. A search that did not complete before the
+   * deadline is reported as dropped and fails with a ServiceSaturatedError, the other errors (no provider nearby,
+   * upstream error...) are normal latency samples.
+   */
+  public <T> CompletableFuture<T> execute(String clientId, Supplier<CompletableFuture<T>> search) {
+
+    long waitNanos = clientRateLimiter.tryConsume(clientId);
+    if (waitNanos > 0) {
+      rateLimitedRejections.increment();
+      throw new RateLimitExceededError("Too many requests",
+          Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+    }
+
+    if (!concurrencyLimiter.tryAcquire()) {
+      saturatedRejections.increment();
+      log.debug("Search rejected, limit {} reached", concurrencyLimiter.getLimit());
+      throw new ServiceSaturatedError("Service saturated, retry later", retryAfterSeconds);
+    }
+
+    long startNanos = System.nanoTime();
+    CompletableFuture<T> result;
+    try {
+      result = search.get();
+    }
+    catch (RuntimeException e) {
+      concurrencyLimiter.onSample(System.nanoTime() - startNanos);
+      throw e;
+    }
+
+    // The deadline is set on a copy so that the future of the caller is not modified
+    return result.copy()
+        .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+        .handle((value, e) -> {
+          if (e == null) {
+            concurrencyLimiter.onSample(System.nanoTime() - startNanos);
+            return value;
+          }
+          if (isTimeout(e)) {
+            concurrencyLimiter.onDropped();
+            timeouts.increment();
+            throw new ServiceSaturatedError("Search timed out, retry later", retryAfterSeconds);
+          }
+          concurrencyLimiter.onSample(System.nanoTime() - startNanos);
+          throw e instanceof CompletionException completionException ? completionException
+              : new CompletionException(e);
+        });
+  }
+
+  private boolean isTimeout(Throwable e) {
+    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    return cause instanceof TimeoutException;
+  }
+
+}
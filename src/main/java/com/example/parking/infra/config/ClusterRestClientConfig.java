@@ -0,0 +1,25 @@
+package com.example.parking.infra.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class ClusterRestClientConfig {
+
+  @Bean
+  // Used to send the snapshots to the other replicas, see HttpParkingSnapshotPublisher.
+  // Without timeouts a replica that does not answer would block its sending thread forever.
+  public RestClient.Builder clusterRestClientBuilder(
+      @Value("${parking.cluster.connect-timeout-ms:1000}") int connectTimeoutMs,
+      @Value("${parking.cluster.read-timeout-ms:2000}") int readTimeoutMs) {
+
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(connectTimeoutMs);
+    requestFactory.setReadTimeout(readTimeoutMs);
+    return RestClient.builder().requestFactory(requestFactory);
+  }
+
+}
@@ -0,0 +1,37 @@
+package com.example.parking.infra.config;
+
+import org.springframework.stereotype.Component;
+
+import com.example.parking.application.service.DistanceCache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the statistics of the DistanceCache (see /actuator/metrics/parking.distance.cache.*).
+ */
+@Component
+public class DistanceCacheMetrics implements MeterBinder {
+
+  private final DistanceCache distanceCache;
+
+  public DistanceCacheMetrics(DistanceCache distanceCache) {
+    this.distanceCache = distanceCache;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("parking.distance.cache.hits", distanceCache, DistanceCache::getHits)
+        .register(registry);
+    FunctionCounter.builder("parking.distance.cache.misses", distanceCache, DistanceCache::getMisses)
+        .register(registry);
+    FunctionCounter.builder("parking.distance.cache.saved.calls", distanceCache, DistanceCache::getSavedCalls)
+        .description("Estimated number of calls to the distance provider avoided by the cache")
+        .register(registry);
+    Gauge.builder("parking.distance.cache.hit.ratio", distanceCache, DistanceCache::getHitRatio)
+        .register(registry);
+  }
+
+}
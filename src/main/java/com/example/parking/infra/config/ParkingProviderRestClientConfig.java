@@ -1,16 +1,24 @@
 package com.example.parking.infra.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
 public class ParkingProviderRestClientConfig {
 
   @Bean
-  // TODO Client can be configured more if necessary
-  public RestClient.Builder parkingProviderRestClientBuilder() {
-    return RestClient.builder();
+  // Without timeouts a provider that does not answer blocks the thread of the call forever
+  public RestClient.Builder parkingProviderRestClientBuilder(
+      @Value("${parking.provider.connect-timeout-ms:2000}") int connectTimeoutMs,
+      @Value("${parking.provider.read-timeout-ms:5000}") int readTimeoutMs) {
+
+    SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+    requestFactory.setConnectTimeout(connectTimeoutMs);
+    requestFactory.setReadTimeout(readTimeoutMs);
+    return RestClient.builder().requestFactory(requestFactory);
   }
 
-}
\ No newline at end of file
+}
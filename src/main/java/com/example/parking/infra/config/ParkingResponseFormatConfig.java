@@ -0,0 +1,36 @@
+package com.example.parking.infra.config;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Formats available for the responses: JSON (default) and CBOR (Accept: application/cbor) which is
+ * a lot more compact for the mobile clients.
+ */
+@Configuration
+public class ParkingResponseFormatConfig {
+
+  /**
+   * By default all the fields of a ParkingDtoOut are serialized, the controller will override the filter
+   * if the client asks for a subset of them.
+   */
+  @Bean
+  public Jackson2ObjectMapperBuilderCustomizer parkingFieldsFilterCustomizer() {
+    return builder -> builder.filters(new SimpleFilterProvider()
+        .addFilter(ParkingDtoOut.FIELDS_FILTER, SimpleBeanPropertyFilter.serializeAll()));
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+  }
+
+}
@@ -0,0 +1,26 @@
+package com.example.parking.infra.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.parking.application.service.ParkingSnapshotService;
+import com.example.parking.application.service.ProviderRefreshCoordinator;
+
+@Configuration
+public class StartupConfig {
+
+  /**
+   * Even with the lazy profile the snapshots saved on disk must be loaded before the first request,
+   * otherwise the first searches would call the providers.
+   * The coordinator must be created to schedule the refreshes of the cluster mode.
+   * Their dependencies that are only needed by the refreshes (api clients, RestClients...) are injected as @Lazy
+   * proxies, so excluding them does not make these dependencies eager.
+   */
+  @Bean
+  static LazyInitializationExcludeFilter eagerSnapshotBeans() {
+    return LazyInitializationExcludeFilter.forBeanTypes(ParkingSnapshotService.class,
+        ProviderRefreshCoordinator.class);
+  }
+
+}
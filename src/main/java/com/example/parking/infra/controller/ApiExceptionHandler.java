@@ -0,0 +1,34 @@
+package com.example.parking.infra.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.example.parking.application.exceptions.RateLimitExceededError;
+import com.example.parking.application.exceptions.ServiceSaturatedError;
+
+/**
+ * Maps the application errors to http responses.
+ * For now only the load shedding errors are mapped, the others still end up in a 500.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+  @ExceptionHandler(ServiceSaturatedError.class)
+  public ResponseEntity<ProblemDetail> handleServiceSaturated(ServiceSaturatedError e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+        .body(ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage()));
+  }
+
+  @ExceptionHandler(RateLimitExceededError.class)
+  public ResponseEntity<ProblemDetail> handleRateLimitExceeded(RateLimitExceededError e) {
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+        .body(ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, e.getMessage()));
+  }
+
+}
@@ -1,31 +1,173 @@
 package com.example.parking.infra.controller;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.parking.application.model.ParkingSearch;
 import com.example.parking.application.model.out.ParkingDtoOut;
 import com.example.parking.application.usecase.FindParkingsNearToCoordinatesUC;
+import com.example.parking.infra.admission.SearchAdmissionControl;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/api/")
 public class ParkingController {
 
+  private static final List<MediaType> PRODUCIBLE_TYPES = List.of(MediaType.APPLICATION_JSON,
+      MediaType.APPLICATION_CBOR);
+
   private final FindParkingsNearToCoordinatesUC findParkingsNearToUC;
 
-  public ParkingController(FindParkingsNearToCoordinatesUC findParkingsNearToUC) {
+  private final SearchAdmissionControl searchAdmissionControl;
+
+  public ParkingController(FindParkingsNearToCoordinatesUC findParkingsNearToUC,
+      SearchAdmissionControl searchAdmissionControl) {
     this.findParkingsNearToUC = findParkingsNearToUC;
+    this.searchAdmissionControl = searchAdmissionControl;
   }
 
+  /**
+   * @param fields optional list of the fields to return for each parking (ex: fields=id,availablePlaces).
+   * Unknown fields are ignored.
+   * The response is JSON or CBOR depending on the Accept header. A weak ETag is computed from the version of the
+   * provider snapshot, so that the clients can poll with If-None-Match and get a 304 when nothing changed: in this
+   * case the distances are not computed at all.
+   * The search goes through the admission control: 429 if the client sends too many requests, 503 if the
+   * service is saturated.
+   */
   @GetMapping("parkings")
-  public CompletableFuture<List<ParkingDtoOut>> findParkings(
+  public CompletableFuture<ResponseEntity<MappingJacksonValue>> findParkings(
       @RequestParam("lat") double lat,
-      @RequestParam("lng") double lng) {
-    return findParkingsNearToUC.execute(lat, lng);
+      @RequestParam("lng") double lng,
+      @RequestParam(name = "fields", required = false) Set<String> fields,
+      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      HttpServletRequest request) throws HttpMediaTypeNotAcceptableException {
+
+    MediaType mediaType = negotiateMediaType(accept);
+
+    return searchAdmissionControl.execute(clientId(request), () -> findParkingsNearToUC.prepare(lat, lng)
+        .thenCompose(search -> {
+          String eTag = computeETag(search, fields, mediaType);
+
+          if (matchesETag(ifNoneMatch, eTag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(eTag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .<MappingJacksonValue>build());
+          }
+
+          return findParkingsNearToUC.execute(search)
+              .thenApply(parkings -> ResponseEntity.ok()
+                  .eTag(eTag)
+                  .varyBy(HttpHeaders.ACCEPT)
+                  .contentType(mediaType)
+                  .body(filterFields(parkings, fields)));
+        }));
+  }
+
+  /**
+   * The format is chosen here (and not by spring) since it is part of the ETag: the highest quality wins,
+   * then the most specific type, then JSON.
+   */
+  private MediaType negotiateMediaType(String accept) throws HttpMediaTypeNotAcceptableException {
+    if (accept == null || accept.isBlank()) {
+      return MediaType.APPLICATION_JSON;
+    }
+
+    List<MediaType> acceptedTypes;
+    try {
+      acceptedTypes = new ArrayList<>(MediaType.parseMediaTypes(accept));
+    }
+    catch (InvalidMediaTypeException e) {
+      throw new HttpMediaTypeNotAcceptableException(e.getMessage());
+    }
+    acceptedTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed()
+        .thenComparing(MediaType::isWildcardType)
+        .thenComparing(MediaType::isWildcardSubtype));
+
+    for (MediaType acceptedType : acceptedTypes) {
+      if (acceptedType.getQualityValue() == 0) {
+        break;
+      }
+      for (MediaType producible : PRODUCIBLE_TYPES) {
+        if (acceptedType.includes(producible)) {
+          return producible;
+        }
+      }
+    }
+    throw new HttpMediaTypeNotAcceptableException(PRODUCIBLE_TYPES);
+  }
+
+  /**
+   * The remote address is the real client behind a load balancer only if the proxy headers are trusted
+   * (see server.forward-headers-strategy): X-Forwarded-For must never be read here, any client can send it.
+   */
+  private String clientId(HttpServletRequest request) {
+    return request.getRemoteAddr();
+  }
+
+  private MappingJacksonValue filterFields(List<ParkingDtoOut> parkings, Set<String> fields) {
+    SimpleBeanPropertyFilter filter = fields == null || fields.isEmpty()
+        ? SimpleBeanPropertyFilter.serializeAll()
+        : SimpleBeanPropertyFilter.filterOutAllExcept(fields);
+
+    MappingJacksonValue value = new MappingJacksonValue(parkings);
+    value.setFilters(new SimpleFilterProvider().addFilter(ParkingDtoOut.FIELDS_FILTER, filter));
+    return value;
+  }
+
+  /**
+   * The result of a search depends on the provider snapshot and on the cell of the origin (the distances are
+   * cached by cell, see DistanceCache), so the ETag is computed before the distances. It also depends on the
+   * requested fields and on the format.
+   * The ETag is weak: two searches from the same cell return equivalent results, but not always the same bytes
+   * (on a cache miss the distance is computed from the exact origin, the cached distances expire...).
+   * It also lets Tomcat gzip the response, it never compresses a response with a strong ETag.
+   */
+  private String computeETag(ParkingSearch search, Set<String> fields, MediaType mediaType) {
+    String key = search.provider().getId() + "|"
+        + search.snapshot().version() + "|"
+        + search.originCell() + "|"
+        + (fields == null ? "" : new TreeSet<>(fields)) + "|"
+        + mediaType;
+
+    return "W/\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+  }
+
+  private boolean matchesETag(String ifNoneMatch, String eTag) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    // If-None-Match uses the weak comparison, so the W/ prefix is ignored
+    String opaqueTag = eTag.substring(2);
+    return Arrays.stream(ifNoneMatch.split(","))
+        .map(String::trim)
+        .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+        .anyMatch(tag -> tag.equals("*") || tag.equals(opaqueTag));
   }
 
 }
@@ -0,0 +1,74 @@
+package com.example.parking.infra.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.service.ParkingSnapshotService;
+import com.example.parking.infra.persistence.snapshot.ParkingSnapshotCodec;
+import com.example.parking.infra.service.HttpParkingSnapshotPublisher;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Receives the snapshots sent by the replica that owns the provider (cluster mode only).
+ * The requests must have the 'parking.cluster.token' token, otherwise anybody could replace the parkings served
+ * by the replicas. So the application does not start in cluster mode without a token.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/internal/")
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class ParkingSnapshotController {
+
+  private final ParkingSnapshotService parkingSnapshotService;
+
+  private final String clusterToken;
+
+  public ParkingSnapshotController(ParkingSnapshotService parkingSnapshotService,
+      @Value("${parking.cluster.token:}") String clusterToken) {
+    if (clusterToken.isBlank()) {
+      throw new IllegalStateException("parking.cluster.token must be set when parking.cluster.enabled is true");
+    }
+    this.parkingSnapshotService = parkingSnapshotService;
+    this.clusterToken = clusterToken;
+  }
+
+  @PostMapping(value = "snapshots", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public ResponseEntity<Void> receiveSnapshot(
+      @RequestHeader(name = HttpParkingSnapshotPublisher.CLUSTER_TOKEN_HEADER, required = false) String token,
+      @RequestBody byte[] body) {
+
+    if (token == null || !MessageDigest.isEqual(clusterToken.getBytes(StandardCharsets.UTF_8),
+        token.getBytes(StandardCharsets.UTF_8))) {
+      return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+    }
+
+    ParkingSnapshot snapshot;
+    try {
+      snapshot = ParkingSnapshotCodec.decode(ByteBuffer.wrap(body));
+    }
+    catch (IllegalArgumentException e) {
+      log.warn("Invalid snapshot received", e);
+      return ResponseEntity.badRequest().build();
+    }
+
+    if (parkingSnapshotService.accept(snapshot)) {
+      log.debug("Received snapshot {} of {}", snapshot.version(), snapshot.providerName());
+    }
+    return ResponseEntity.noContent().build();
+  }
+
+}
@@ -1,5 +1,6 @@
 package com.example.parking.infra.persistence.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
@@ -41,4 +42,10 @@ public class ParkingProviderRepository implements ParkingProviderGateway {
     return CompletableFuture.completedFuture(Optional.of(theProvider));
   }
 
+  @Override
+  @Async
+  public CompletableFuture<List<ParkingProvider>> getAllProviders() {
+    return CompletableFuture.completedFuture(List.of(theProvider));
+  }
+
 }
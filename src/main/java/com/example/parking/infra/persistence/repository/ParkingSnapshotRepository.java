@@ -0,0 +1,145 @@
+package com.example.parking.infra.persistence.repository;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.example.parking.application.gateway.ParkingSnapshotGateway;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.infra.persistence.snapshot.ParkingSnapshotCodec;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores one file per provider (<provider name>.snapshot) in the snapshot directory, in the ParkingSnapshotCodec format.
+ * The files are written in a temporary file then moved, so a crash during the write never leaves a truncated snapshot.
+ * At startup the files are memory-mapped and decoded, which is fast enough to serve them before the first request.
+ * The saves are asynchronous, so two saves of a provider can run at the same time (back to back refreshes, snapshots
+ * received from the other replicas): they are serialized per provider and a snapshot older than the saved one is
+ * skipped, otherwise the last move would win even if it is the oldest snapshot.
+ */
+@Slf4j
+@Component
+public class ParkingSnapshotRepository implements ParkingSnapshotGateway {
+
+  private static final String EXTENSION = ".snapshot";
+
+  private final Path directory;
+
+  private final Map<ParkingProviderName, Object> locks = new ConcurrentHashMap<>();
+
+  // Version of the file of each provider, -1 if there is no valid file. Updated under the lock of the provider.
+  private final Map<ParkingProviderName, Long> savedVersions = new ConcurrentHashMap<>();
+
+  public ParkingSnapshotRepository(@Value("${parking.snapshot.dir:snapshots}") Path directory) {
+    this.directory = directory;
+  }
+
+  @Override
+  public List<ParkingSnapshot> loadAll() {
+    List<ParkingSnapshot> snapshots = new ArrayList<>();
+
+    if (!Files.isDirectory(directory)) {
+      return snapshots;
+    }
+
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+      for (Path file : files) {
+        try {
+          snapshots.add(read(file));
+        }
+        catch (IOException | IllegalArgumentException e) {
+          log.warn("Ignoring unreadable parking snapshot {}", file, e);
+        }
+      }
+    }
+    catch (IOException e) {
+      log.warn("Cannot list the parking snapshots in {}", directory, e);
+    }
+
+    return snapshots;
+  }
+
+  @Override
+  @Async
+  public CompletableFuture<Void> save(ParkingSnapshot snapshot) {
+    ParkingProviderName providerName = snapshot.providerName();
+    Path file = directory.resolve(providerName.name() + EXTENSION);
+
+    synchronized (locks.computeIfAbsent(providerName, name -> new Object())) {
+      long savedVersion = savedVersions.computeIfAbsent(providerName, name -> readVersion(file));
+      if (snapshot.version() <= savedVersion) {
+        log.debug("Snapshot {} of {} not saved, version {} is already saved", snapshot.version(), providerName,
+            savedVersion);
+        return CompletableFuture.completedFuture(null);
+      }
+
+      Path tmpFile = null;
+      try {
+        Files.createDirectories(directory);
+        tmpFile = Files.createTempFile(directory, providerName.name(), ".tmp");
+        Files.write(tmpFile, ParkingSnapshotCodec.encode(snapshot));
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedVersions.put(providerName, snapshot.version());
+        return CompletableFuture.completedFuture(null);
+      }
+      catch (IOException e) {
+        log.warn("Error saving the parking snapshot of {}", providerName, e);
+        deleteQuietly(tmpFile);
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+  }
+
+  private long readVersion(Path file) {
+    if (!Files.exists(file)) {
+      return -1;
+    }
+    try {
+      return read(file).version();
+    }
+    catch (IOException | IllegalArgumentException e) {
+      log.warn("Unreadable parking snapshot {}, it will be replaced", file, e);
+      return -1;
+    }
+  }
+
+  private void deleteQuietly(Path file) {
+    if (file == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(file);
+    }
+    catch (IOException e) {
+      log.warn("Cannot delete {}", file, e);
+    }
+  }
+
+  private ParkingSnapshot read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      ParkingSnapshot snapshot = ParkingSnapshotCodec.decode(buffer);
+      if (!file.getFileName().toString().equals(snapshot.providerName().name() + EXTENSION)) {
+        throw new IllegalArgumentException("The file contains the snapshot of " + snapshot.providerName());
+      }
+      return snapshot;
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+package com.example.parking.infra.persistence.repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.example.parking.application.gateway.ProviderLeaseGateway;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Leases stored in files (<provider name>.lease containing the owner and the expiry in epoch millis),
+ * read and written under a file lock.
+ * It works for the replicas of a same host or sharing a volume with working file locks, and for the tests.
+ * With replicas on several hosts this gateway should be implemented on a shared backend (db row with
+ * a conditional update, etcd, consul...).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class ProviderLeaseRepository implements ProviderLeaseGateway {
+
+  private static final String EXTENSION = ".lease";
+
+  private final Path directory;
+
+  public ProviderLeaseRepository(@Value("${parking.cluster.lease-dir:leases}") Path directory) {
+    this.directory = directory;
+  }
+
+  // The file lock is held by the JVM, so the threads of the JVM must not ask for it at the same time
+  @Override
+  public synchronized boolean tryAcquire(ParkingProviderName providerName, String nodeId, Duration ttl) {
+    try (FileChannel channel = open(providerName); FileLock lock = channel.lock()) {
+      String[] lease = read(channel);
+      long now = System.currentTimeMillis();
+
+      if (lease != null && !lease[0].equals(nodeId) && Long.parseLong(lease[1]) > now) {
+        return false;
+      }
+
+      write(channel, nodeId + "\n" + (now + ttl.toMillis()));
+      return true;
+    }
+    catch (IOException | RuntimeException e) {
+      log.warn("Cannot acquire the lease of {}", providerName, e);
+      return false;
+    }
+  }
+
+  @Override
+  public synchronized void release(ParkingProviderName providerName, String nodeId) {
+    try (FileChannel channel = open(providerName); FileLock lock = channel.lock()) {
+      String[] lease = read(channel);
+      if (lease != null && lease[0].equals(nodeId)) {
+        channel.truncate(0);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      log.warn("Cannot release the lease of {}", providerName, e);
+    }
+  }
+
+  private FileChannel open(ParkingProviderName providerName) throws IOException {
+    Files.createDirectories(directory);
+    return FileChannel.open(directory.resolve(providerName.name() + EXTENSION),
+        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+  }
+
+  /**
+   * @return [owner, expiry] or null if there is no lease.
+   */
+  private String[] read(FileChannel channel) throws IOException {
+    if (channel.size() == 0) {
+      return null;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+    channel.read(buffer, 0);
+    String[] lease = new String(buffer.array(), StandardCharsets.UTF_8).split("\n");
+    return lease.length == 2 ? lease : null;
+  }
+
+  private void write(FileChannel channel, String lease) throws IOException {
+    channel.truncate(0);
+    channel.write(ByteBuffer.wrap(lease.getBytes(StandardCharsets.UTF_8)), 0);
+    channel.force(false);
+  }
+
+}
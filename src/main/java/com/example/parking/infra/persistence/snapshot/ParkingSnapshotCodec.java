@@ -0,0 +1,162 @@
+package com.example.parking.infra.persistence.snapshot;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+/**
+ * Compact binary format of a ParkingSnapshot:
+ *
+ * magic (int) | format version (short) | provider name (string) | snapshot version (long) | fetchedAt epoch millis (long)
+ * | number of parkings (int) | parkings... | CRC32 of all the previous bytes (int)
+ *
+ * parking: id (int) | lat (double) | lng (double) | availablePlaces (int) | capacity (int) | name (string)
+ * string: length in bytes (short, -1 for null) | UTF-8 bytes
+ * null Integers are written as Integer.MIN_VALUE.
+ *
+ * The distance is not stored, it depends on the request.
+ * If the format changes, FORMAT_VERSION must be incremented: the old files will be ignored.
+ */
+public final class ParkingSnapshotCodec {
+
+  private static final int MAGIC = 0x49505331; // "IPS1"
+
+  private static final short FORMAT_VERSION = 1;
+
+  private static final int NULL_INT = Integer.MIN_VALUE;
+
+  // id, lat, lng, availablePlaces, capacity, name length
+  private static final int PARKING_FIXED_SIZE = 4 + 8 + 8 + 4 + 4 + 2;
+
+  private ParkingSnapshotCodec() {
+  }
+
+  public static byte[] encode(ParkingSnapshot snapshot) {
+    byte[] providerName = snapshot.providerName().name().getBytes(StandardCharsets.UTF_8);
+    List<byte[]> names = snapshot.parkings().stream()
+        .map(p -> p.getName() == null ? null : p.getName().getBytes(StandardCharsets.UTF_8))
+        .toList();
+
+    int size = 4 + 2 + 2 + providerName.length + 8 + 8 + 4 + 4;
+    for (byte[] name : names) {
+      size += PARKING_FIXED_SIZE + (name == null ? 0 : name.length);
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    buffer.putInt(MAGIC);
+    buffer.putShort(FORMAT_VERSION);
+    putString(buffer, providerName);
+    buffer.putLong(snapshot.version());
+    buffer.putLong(snapshot.fetchedAt().toEpochMilli());
+    buffer.putInt(snapshot.parkings().size());
+
+    for (int i = 0; i < names.size(); i++) {
+      ParkingDtoOut parking = snapshot.parkings().get(i);
+      buffer.putInt(parking.getId());
+      buffer.putDouble(parking.getLat());
+      buffer.putDouble(parking.getLng());
+      buffer.putInt(parking.getAvailablePlaces() == null ? NULL_INT : parking.getAvailablePlaces());
+      buffer.putInt(parking.getCapacity() == null ? NULL_INT : parking.getCapacity());
+      putString(buffer, names.get(i));
+    }
+
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+
+    return buffer.array();
+  }
+
+  /**
+   * Decodes the snapshot between the position and the limit of the buffer. The snapshot is marked as stale.
+   * @throws IllegalArgumentException if the data is not a valid snapshot (corrupted, truncated, other format version...)
+   */
+  public static ParkingSnapshot decode(ByteBuffer buffer) {
+    try {
+      int end = buffer.limit() - 4;
+
+      CRC32 crc = new CRC32();
+      crc.update(buffer.duplicate().limit(end));
+      if ((int) crc.getValue() != buffer.getInt(end)) {
+        throw new IllegalArgumentException("Invalid checksum");
+      }
+
+      if (buffer.getInt() != MAGIC) {
+        throw new IllegalArgumentException("Not a parking snapshot");
+      }
+      short formatVersion = buffer.getShort();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IllegalArgumentException("Unsupported format version " + formatVersion);
+      }
+
+      String providerNameValue = getString(buffer);
+      if (providerNameValue == null) {
+        throw new IllegalArgumentException("Missing provider name");
+      }
+      ParkingProviderName providerName = ParkingProviderName.valueOf(providerNameValue);
+      long version = buffer.getLong();
+      Instant fetchedAt = Instant.ofEpochMilli(buffer.getLong());
+      int count = buffer.getInt();
+      if (count < 0 || count > (end - buffer.position()) / PARKING_FIXED_SIZE) {
+        throw new IllegalArgumentException("Invalid number of parkings " + count);
+      }
+
+      List<ParkingDtoOut> parkings = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        ParkingDtoOut parking = new ParkingDtoOut();
+        parking.setId(buffer.getInt());
+        parking.setLat(buffer.getDouble());
+        parking.setLng(buffer.getDouble());
+        parking.setAvailablePlaces(getInteger(buffer));
+        parking.setCapacity(getInteger(buffer));
+        parking.setName(getString(buffer));
+        parkings.add(parking);
+      }
+
+      if (buffer.position() != end) {
+        throw new IllegalArgumentException("Unexpected data after the parkings");
+      }
+
+      return new ParkingSnapshot(providerName, version, fetchedAt, List.copyOf(parkings), true);
+    }
+    catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Truncated parking snapshot", e);
+    }
+  }
+
+  private static void putString(ByteBuffer buffer, byte[] value) {
+    if (value == null) {
+      buffer.putShort((short) -1);
+      return;
+    }
+    if (value.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("String too long: " + value.length + " bytes");
+    }
+    buffer.putShort((short) value.length);
+    buffer.put(value);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    short length = buffer.getShort();
+    if (length < 0) {
+      return null;
+    }
+    byte[] value = new byte[length];
+    buffer.get(value);
+    return new String(value, StandardCharsets.UTF_8);
+  }
+
+  private static Integer getInteger(ByteBuffer buffer) {
+    int value = buffer.getInt();
+    return value == NULL_INT ? null : value;
+  }
+
+}
@@ -0,0 +1,84 @@
+package com.example.parking.infra.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import com.example.parking.application.gateway.ParkingSnapshotPublisher;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.infra.persistence.snapshot.ParkingSnapshotCodec;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the snapshot, in the binary format of the snapshot files, to each replica listed in 'parking.cluster.peers'
+ * (base urls like http://parking-2:8080). See ParkingSnapshotController for the other side.
+ * The replicas are called in parallel, each one on its own virtual thread: a slow replica does not delay the others
+ * and does not hold a thread of the shared async executor.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "parking.cluster.enabled", havingValue = "true")
+public class HttpParkingSnapshotPublisher implements ParkingSnapshotPublisher {
+
+  public static final String SNAPSHOTS_PATH = "/api/internal/snapshots";
+
+  public static final String CLUSTER_TOKEN_HEADER = "X-Cluster-Token";
+
+  private final RestClient restClient;
+
+  private final List<String> peers;
+
+  private final String clusterToken;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public HttpParkingSnapshotPublisher(@Qualifier("clusterRestClientBuilder") RestClient.Builder restClientBuilder,
+      @Value("${parking.cluster.peers:}") List<String> peers,
+      @Value("${parking.cluster.token:}") String clusterToken) {
+    this.restClient = restClientBuilder.build();
+    this.peers = peers.stream().map(String::trim).filter(peer -> !peer.isEmpty()).toList();
+    this.clusterToken = clusterToken;
+  }
+
+  @Override
+  public CompletableFuture<Void> publish(ParkingSnapshot snapshot) {
+
+    byte[] body = ParkingSnapshotCodec.encode(snapshot);
+
+    return CompletableFuture.allOf(peers.stream()
+        .map(peer -> CompletableFuture.runAsync(() -> send(snapshot, body, peer), executor))
+        .toArray(CompletableFuture[]::new));
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private void send(ParkingSnapshot snapshot, byte[] body, String peer) {
+    try {
+      restClient.post()
+          .uri(peer + SNAPSHOTS_PATH)
+          .contentType(MediaType.APPLICATION_OCTET_STREAM)
+          .header(CLUSTER_TOKEN_HEADER, clusterToken)
+          .body(body)
+          .retrieve()
+          .toBodilessEntity();
+    }
+    catch (Exception e) {
+      // The peer will get the next snapshot, or will take over the provider if we are the one in trouble
+      log.warn("Error sending the snapshot {} of {} to {}", snapshot.version(), snapshot.providerName(), peer, e);
+    }
+  }
+
+}
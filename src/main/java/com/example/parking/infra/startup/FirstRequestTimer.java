@@ -0,0 +1,79 @@
+package com.example.parking.infra.startup;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Measures the time between the start of the JVM and the end of the first request served (whatever its result),
+ * which is what matters when we autoscale. The actuator requests are ignored: the first request is usually
+ * a health probe of the orchestrator, not a user request. Exported as the 'application.first.request.time' metric,
+ * next to the 'application.started.time' and 'application.ready.time' metrics of Spring Boot.
+ */
+@Slf4j
+@Component
+public class FirstRequestTimer extends OncePerRequestFilter implements MeterBinder {
+
+  private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+
+  private final AtomicLong firstRequestUptimeMs = new AtomicLong(-1);
+
+  private final String actuatorBasePath;
+
+  public FirstRequestTimer(@Value("${management.endpoints.web.base-path:/actuator}") String actuatorBasePath) {
+    this.actuatorBasePath = actuatorBasePath;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    TimeGauge.builder("application.first.request.time", firstRequestUptimeMs, TimeUnit.MILLISECONDS,
+        uptime -> uptime.get() < 0 ? Double.NaN : uptime.get())
+        .description("Time from the start of the JVM to the end of the first request")
+        .register(meterRegistry);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String path = URL_PATH_HELPER.getPathWithinApplication(request);
+    return path.equals(actuatorBasePath) || path.startsWith(actuatorBasePath + "/");
+  }
+
+  @Override
+  protected boolean shouldNotFilterAsyncDispatch() {
+    // The async requests (like the parkings search) end in the async dispatch
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+
+    try {
+      filterChain.doFilter(request, response);
+    }
+    finally {
+      if (firstRequestUptimeMs.get() < 0 && !request.isAsyncStarted()) {
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        if (firstRequestUptimeMs.compareAndSet(-1, uptimeMs)) {
+          log.info("Startup report: first request served {} ms after the start of the JVM", uptimeMs);
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.example.parking.infra.startup;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Comparator;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline.TimelineEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs how long the startup took and the slowest beans to create, to see where the startup time goes.
+ * The full timeline is available under /actuator/startup.
+ */
+@Slf4j
+@Component
+public class StartupTimingReporter {
+
+  private static final int SLOWEST_BEANS_COUNT = 10;
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void report(ApplicationReadyEvent event) {
+
+    log.info("Startup report: ready in {} ms (JVM uptime {} ms)",
+        event.getTimeTaken() == null ? "?" : event.getTimeTaken().toMillis(),
+        ManagementFactory.getRuntimeMXBean().getUptime());
+
+    ApplicationStartup applicationStartup = event.getApplicationContext().getApplicationStartup();
+    if (!(applicationStartup instanceof BufferingApplicationStartup bufferingStartup)) {
+      return;
+    }
+
+    bufferingStartup.getBufferedTimeline().getEvents().stream()
+        .filter(timelineEvent -> timelineEvent.getStartupStep().getName().equals("spring.beans.instantiate"))
+        .sorted(Comparator.comparing(TimelineEvent::getDuration).reversed())
+        .limit(SLOWEST_BEANS_COUNT)
+        .forEach(timelineEvent -> log.info("Startup report: {} ms to create {}",
+            timelineEvent.getDuration().toMillis(), beanName(timelineEvent)));
+  }
+
+  private String beanName(TimelineEvent timelineEvent) {
+    for (var tag : timelineEvent.getStartupStep().getTags()) {
+      if (tag.getKey().equals("beanName")) {
+        return tag.getValue();
+      }
+    }
+    return "?";
+  }
+
+}
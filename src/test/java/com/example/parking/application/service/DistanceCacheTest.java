@@ -0,0 +1,117 @@
+package com.example.parking.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.domain.ParkingProvider;
+
+@ExtendWith(MockitoExtension.class)
+class DistanceCacheTest {
+
+  @Mock
+  private DistanceProviderApiClient distanceProviderApiClient;
+
+  private ParkingProvider provider;
+
+  @BeforeEach
+  void setUp() {
+    provider = new ParkingProvider();
+    provider.setId(1);
+
+    when(distanceProviderApiClient.getDistanceInMeters(anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+        .thenReturn(CompletableFuture.completedFuture(500));
+  }
+
+  @Test
+  void getDistanceInMeters_shouldNotCallTheProvider_forAnOriginInTheSameCell() throws Exception {
+
+    // Given
+    DistanceCache sut = new DistanceCache(distanceProviderApiClient, 0.001, 1024, 60);
+    ParkingDtoOut parking = createParkingDto(3);
+
+    // When
+    int first = sut.getDistanceInMeters(46.58012, 0.33012, provider, parking).get();
+    int second = sut.getDistanceInMeters(46.58049, 0.33049, provider, parking).get();
+
+    // Then
+    assertThat(first).isEqualTo(500);
+    assertThat(second).isEqualTo(500);
+    verify(distanceProviderApiClient, times(1)).getDistanceInMeters(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    assertThat(sut.getHitRatio()).isEqualTo(0.5);
+    assertThat(sut.getSavedCalls()).isEqualTo(1);
+  }
+
+  @Test
+  void getDistanceInMeters_shouldCallTheProvider_forAnotherCellOrAnotherParking() throws Exception {
+
+    // Given
+    DistanceCache sut = new DistanceCache(distanceProviderApiClient, 0.001, 1024, 60);
+
+    // When
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, createParkingDto(3)).get();
+    sut.getDistanceInMeters(46.5811, 0.3301, provider, createParkingDto(3)).get();
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, createParkingDto(4)).get();
+
+    // Then
+    verify(distanceProviderApiClient, times(3)).getDistanceInMeters(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    assertThat(sut.getHits()).isZero();
+  }
+
+  @Test
+  void getDistanceInMeters_shouldCallTheProvider_whenTheEntryExpired() throws Exception {
+
+    // Given
+    DistanceCache sut = new DistanceCache(distanceProviderApiClient, 0.001, 1024, 0);
+    ParkingDtoOut parking = createParkingDto(3);
+
+    // When
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, parking).get();
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, parking).get();
+
+    // Then
+    verify(distanceProviderApiClient, times(2)).getDistanceInMeters(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+  }
+
+  @Test
+  void getDistanceInMeters_shouldKeepTheMostRecentEntries_whenTheCacheIsFull() throws Exception {
+
+    // Given a cache with a single set of 4 entries
+    DistanceCache sut = new DistanceCache(distanceProviderApiClient, 0.001, 4, 60);
+
+    // When
+    for (int id = 0; id < 5; id++) {
+      sut.getDistanceInMeters(46.5801, 0.3301, provider, createParkingDto(id)).get();
+    }
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, createParkingDto(4)).get();
+    sut.getDistanceInMeters(46.5801, 0.3301, provider, createParkingDto(0)).get();
+
+    // Then
+    assertThat(sut.getHits())
+        .as("The last parking is still cached")
+        .isEqualTo(1);
+    assertThat(sut.getMisses())
+        .as("The first parking has been evicted")
+        .isEqualTo(6);
+  }
+
+  private ParkingDtoOut createParkingDto(int id) {
+    ParkingDtoOut dto = new ParkingDtoOut();
+    dto.setId(id);
+    dto.setLat(46.5838);
+    dto.setLng(0.3377);
+    return dto;
+  }
+
+}
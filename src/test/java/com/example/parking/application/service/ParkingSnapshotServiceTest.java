@@ -0,0 +1,269 @@
+package com.example.parking.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.parking.application.gateway.ParkingProviderGateway;
+import com.example.parking.application.gateway.ParkingSnapshotGateway;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.domain.ParkingProvider;
+
+@ExtendWith(MockitoExtension.class)
+class ParkingSnapshotServiceTest {
+
+  @Mock
+  private ParkingProviderApiClientFactory apiClientFactory;
+
+  @Mock
+  private ParkingProviderApiClient apiClient;
+
+  @Mock
+  private ParkingSnapshotGateway snapshotGateway;
+
+  @Mock
+  private ParkingProviderGateway parkingProviderGateway;
+
+  private ParkingProvider provider;
+
+  @BeforeEach
+  void setUp() {
+    provider = new ParkingProvider();
+    provider.setName(ParkingProviderName.GrandPoitiers);
+  }
+
+  @Test
+  void getSnapshot_shouldFetchTheProviderAndSaveTheSnapshot_whenThereIsNoSnapshot() throws Exception {
+
+    // Given
+    ParkingSnapshotService sut = createService(60);
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.completedFuture(List.of(createParkingDto(1, 5))));
+
+    // When
+    List<ParkingDtoOut> result = sut.getSnapshot(provider).get().copyParkings();
+    sut.getSnapshot(provider).get();
+
+    // Then
+    assertThat(result).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(5);
+    verify(apiClient, times(1).description("The second search uses the snapshot")).fetchParkings(provider);
+    verify(snapshotGateway).save(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void getSnapshot_shouldServeTheSavedSnapshotAndRefreshIt_whenItIsStale() throws Exception {
+
+    // Given
+    when(snapshotGateway.loadAll()).thenReturn(List.of(createSnapshot(1)));
+    ParkingSnapshotService sut = createService(60);
+    sut.loadSavedSnapshots();
+
+    CompletableFuture<List<ParkingDtoOut>> upstream = new CompletableFuture<>();
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider)).thenReturn(upstream);
+
+    // When
+    List<ParkingDtoOut> beforeRefresh = sut.getSnapshot(provider).get().copyParkings();
+    upstream.complete(List.of(createParkingDto(1, 2)));
+    List<ParkingDtoOut> afterRefresh = sut.getSnapshot(provider).get().copyParkings();
+
+    // Then
+    assertThat(beforeRefresh)
+        .as("The saved snapshot is served without waiting for the provider")
+        .extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    assertThat(afterRefresh).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(2);
+  }
+
+  @Test
+  void getSnapshot_shouldServeTheLastKnownSnapshot_whenTheProviderFails() throws Exception {
+
+    // Given
+    when(snapshotGateway.loadAll()).thenReturn(List.of(createSnapshot(1)));
+    ParkingSnapshotService sut = createService(0);
+    sut.loadSavedSnapshots();
+
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Provider down")));
+
+    // When
+    List<ParkingDtoOut> result = sut.getSnapshot(provider).get().copyParkings();
+
+    // Then
+    assertThat(result).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    verify(snapshotGateway, never()).save(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void getSnapshot_shouldNotCallTheProviderAgain_untilTheBackoffAfterAFailure() throws Exception {
+
+    // Given
+    when(snapshotGateway.loadAll()).thenReturn(List.of(createSnapshot(1)));
+    ParkingSnapshotService sut = createService(0, 60);
+    sut.loadSavedSnapshots();
+
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Provider down")));
+
+    // When
+    sut.getSnapshot(provider).get();
+    List<ParkingDtoOut> result = sut.getSnapshot(provider).get().copyParkings();
+
+    // Then
+    assertThat(result).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    verify(apiClient, times(1).description("The second search is in the backoff of the failed refresh"))
+        .fetchParkings(provider);
+  }
+
+  @Test
+  void getSnapshot_shouldFailWithoutCallingTheProvider_whenThereIsNoSnapshotAndTheLastCallFailed() {
+
+    // Given
+    ParkingSnapshotService sut = createService(60, 60);
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Provider down")));
+
+    // When
+    CompletableFuture<ParkingSnapshot> first = sut.getSnapshot(provider);
+    CompletableFuture<ParkingSnapshot> second = sut.getSnapshot(provider);
+
+    // Then
+    assertThat(first).isCompletedExceptionally();
+    assertThat(second).isCompletedExceptionally();
+    verify(apiClient, times(1)).fetchParkings(provider);
+  }
+
+  @Test
+  void getSnapshot_shouldCallTheProviderAgain_afterTheBackoff() throws Exception {
+
+    // Given
+    when(snapshotGateway.loadAll()).thenReturn(List.of(createSnapshot(1)));
+    ParkingSnapshotService sut = createService(0, 0);
+    sut.loadSavedSnapshots();
+
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Provider down")))
+        .thenReturn(CompletableFuture.completedFuture(List.of(createParkingDto(1, 2))));
+
+    // When
+    sut.getSnapshot(provider).get();
+    Thread.sleep(5);
+    sut.getSnapshot(provider).get();
+
+    // Then
+    assertThat(sut.getSnapshot(provider).get().parkings())
+        .extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(2);
+  }
+
+  @Test
+  void getSnapshot_shouldNotRefreshAnExpiredSnapshot_inClusterMode() throws Exception {
+
+    // Given
+    when(snapshotGateway.loadAll()).thenReturn(List.of(createSnapshot(1)));
+    ParkingSnapshotService sut = createClusterService();
+    sut.loadSavedSnapshots();
+
+    // When
+    List<ParkingDtoOut> result = sut.getSnapshot(provider).get().copyParkings();
+
+    // Then
+    assertThat(result).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    verify(apiClientFactory, never().description("Only the owner of the provider refreshes it"))
+        .getConverter(any(ParkingProvider.class));
+  }
+
+  @Test
+  void getSnapshot_shouldRefreshATooOldSnapshot_inClusterMode() throws Exception {
+
+    // Given: the snapshots of the owner are not received anymore
+    when(snapshotGateway.loadAll()).thenReturn(List.of(
+        createSnapshot(1, 1, Instant.now().minus(Duration.ofMinutes(10)))));
+    ParkingSnapshotService sut = createClusterService();
+    sut.loadSavedSnapshots();
+
+    when(apiClientFactory.getConverter(provider)).thenReturn(Optional.of(apiClient));
+    when(apiClient.fetchParkings(provider))
+        .thenReturn(CompletableFuture.completedFuture(List.of(createParkingDto(1, 2))));
+
+    // When
+    List<ParkingDtoOut> beforeRefresh = sut.getSnapshot(provider).get().copyParkings();
+    List<ParkingDtoOut> afterRefresh = sut.getSnapshot(provider).get().copyParkings();
+
+    // Then
+    assertThat(beforeRefresh).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    assertThat(afterRefresh).extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(2);
+  }
+
+  @Test
+  void accept_shouldKeepTheMostRecentSnapshot() throws Exception {
+
+    // Given
+    ParkingSnapshotService sut = createService(60);
+
+    // When
+    boolean newerAccepted = sut.accept(createSnapshot(2, 1));
+    boolean olderAccepted = sut.accept(createSnapshot(1, 5));
+
+    // Then
+    assertThat(newerAccepted).isTrue();
+    assertThat(olderAccepted).isFalse();
+    assertThat(sut.getSnapshot(provider).get().parkings())
+        .extracting(ParkingDtoOut::getAvailablePlaces).containsExactly(1);
+    verify(snapshotGateway, times(1)).save(any(ParkingSnapshot.class));
+  }
+
+  private ParkingSnapshotService createService(long ttlSeconds) {
+    return createService(ttlSeconds, 5);
+  }
+
+  private ParkingSnapshotService createService(long ttlSeconds, long retryBackoffSeconds) {
+    return new ParkingSnapshotService(apiClientFactory, snapshotGateway, parkingProviderGateway, ttlSeconds,
+        retryBackoffSeconds, false, 120);
+  }
+
+  private ParkingSnapshotService createClusterService() {
+    return new ParkingSnapshotService(apiClientFactory, snapshotGateway, parkingProviderGateway, 0, 5, true, 120);
+  }
+
+  private ParkingSnapshot createSnapshot(int availablePlaces) {
+    return createSnapshot(1, availablePlaces);
+  }
+
+  private ParkingSnapshot createSnapshot(long version, int availablePlaces) {
+    return createSnapshot(version, availablePlaces, Instant.now());
+  }
+
+  private ParkingSnapshot createSnapshot(long version, int availablePlaces, Instant fetchedAt) {
+    return new ParkingSnapshot(ParkingProviderName.GrandPoitiers, version, fetchedAt,
+        List.of(createParkingDto(1, availablePlaces)), true);
+  }
+
+  private ParkingDtoOut createParkingDto(int id, int availablePlaces) {
+    ParkingDtoOut dto = new ParkingDtoOut();
+    dto.setId(id);
+    dto.setAvailablePlaces(availablePlaces);
+    return dto;
+  }
+
+}
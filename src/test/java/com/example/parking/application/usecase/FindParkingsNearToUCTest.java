@@ -14,9 +14,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.example.parking.application.gateway.ParkingSnapshotGateway;
 import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.DistanceCache;
 import com.example.parking.application.service.ParkingProviderApiClient;
 import com.example.parking.application.service.ParkingProviderApiClientFactory;
+import com.example.parking.application.service.ParkingSnapshotService;
 import com.example.parking.domain.ParkingProvider;
 import com.example.parking.infra.persistence.repository.ParkingProviderRepository;
 import com.example.parking.infra.service.GoogleDistanceProviderApiClient;
@@ -38,12 +41,16 @@ class FindParkingsNearToUCTest {
   @Mock
   private ParkingProviderApiClient parkingProviderApiClient;
 
+  @Mock
+  private ParkingSnapshotGateway snapshotGateway;
+
   @BeforeEach
   void setUp() {
+    ParkingProviderRepository parkingProviderRepository = new ParkingProviderRepository();
     sut = new FindParkingsNearToCoordinatesUC(
-        new ParkingProviderRepository(),
-        apiClientRepo,
-        new GoogleDistanceProviderApiClient());
+        parkingProviderRepository,
+        new ParkingSnapshotService(apiClientRepo, snapshotGateway, parkingProviderRepository, 60, 5, false, 120),
+        new DistanceCache(new GoogleDistanceProviderApiClient(), 0.001, 1024, 60));
 
     // Install our stub apiclient
     when(apiClientRepo.getConverter(any(ParkingProvider.class)))
@@ -70,8 +77,8 @@ class FindParkingsNearToUCTest {
     assertThat(result)
         .as("The expected number of parking is returned.")
         .hasSize(2)
-        .as("The parkings are the expected ones.")
-        .usingRecursiveFieldByFieldElementComparator().containsAll(expectedParkings)
+        .as("The parkings are the expected ones (the snapshot returns copies, the distance is set on them only).")
+        .usingRecursiveFieldByFieldElementComparatorIgnoringFields("distance_m").containsAll(expectedParkings)
         .as("The parkings are sorted by distance.")
         .isSortedAccordingTo((p1, p2) -> Integer.compare(p1.getDistance_m(), p2.getDistance_m()))
         .as("Distance have been set by the distance provider")
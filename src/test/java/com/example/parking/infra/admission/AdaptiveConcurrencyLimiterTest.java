@@ -0,0 +1,76 @@
+package com.example.parking.infra.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+  @Test
+  void tryAcquire_shouldRejectRequests_whenLimitIsReached() {
+    AdaptiveConcurrencyLimiter sut = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, 0.9);
+
+    assertThat(sut.tryAcquire()).isTrue();
+    assertThat(sut.tryAcquire()).isTrue();
+    assertThat(sut.tryAcquire())
+        .as("The third request is over the limit")
+        .isFalse();
+
+    sut.onSample(RTT_NANOS);
+    assertThat(sut.tryAcquire())
+        .as("A request completed, there is room for a new one")
+        .isTrue();
+  }
+
+  @Test
+  void limit_shouldGrow_whenLatencyIsStable() {
+    AdaptiveConcurrencyLimiter sut = new AdaptiveConcurrencyLimiter(10, 1, 100, 2.0, 0.9);
+
+    runAtFullLoad(sut, RTT_NANOS, 50);
+
+    assertThat(sut.getLimit()).isGreaterThan(10);
+  }
+
+  @Test
+  void limit_shouldShrink_whenLatencyIncreases() {
+    AdaptiveConcurrencyLimiter sut = new AdaptiveConcurrencyLimiter(50, 1, 100, 2.0, 0.9);
+    runAtFullLoad(sut, RTT_NANOS, 10);
+    int limitBeforeSlowdown = sut.getLimit();
+
+    // The upstream becomes 10 times slower
+    runAtFullLoad(sut, RTT_NANOS * 10, 10);
+
+    assertThat(sut.getLimit()).isLessThan(limitBeforeSlowdown);
+  }
+
+  @Test
+  void limit_shouldShrink_whenRequestsAreDropped_butNotBelowMinimum() {
+    AdaptiveConcurrencyLimiter sut = new AdaptiveConcurrencyLimiter(10, 5, 100, 2.0, 0.5);
+
+    sut.tryAcquire();
+    sut.onDropped();
+    assertThat(sut.getLimit()).isEqualTo(5);
+
+    sut.tryAcquire();
+    sut.onDropped();
+    assertThat(sut.getLimit()).isEqualTo(5);
+    assertThat(sut.getInFlight()).isZero();
+  }
+
+  private void runAtFullLoad(AdaptiveConcurrencyLimiter sut, long rttNanos, int rounds) {
+    for (int round = 0; round < rounds; round++) {
+      int acquired = 0;
+      while (sut.tryAcquire()) {
+        acquired++;
+      }
+      for (int i = 0; i < acquired; i++) {
+        sut.onSample(rttNanos);
+      }
+    }
+  }
+
+}
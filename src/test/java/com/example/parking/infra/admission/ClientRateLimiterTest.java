@@ -0,0 +1,52 @@
+package com.example.parking.infra.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class ClientRateLimiterTest {
+
+  private final AtomicLong nowNanos = new AtomicLong();
+
+  @Test
+  void tryConsume_shouldAllowABurstThenRejectUntilRefill() {
+    ClientRateLimiter sut = new ClientRateLimiter(2, 1, 100, nowNanos::get);
+
+    assertThat(sut.tryConsume("client")).isZero();
+    assertThat(sut.tryConsume("client")).isZero();
+    assertThat(sut.tryConsume("client"))
+        .as("The bucket is empty, the client has to wait one second for the next token")
+        .isEqualTo(TimeUnit.SECONDS.toNanos(1));
+
+    nowNanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(sut.tryConsume("client")).isZero();
+  }
+
+  @Test
+  void tryConsume_shouldLimitEachClientIndependently() {
+    ClientRateLimiter sut = new ClientRateLimiter(1, 1, 100, nowNanos::get);
+
+    assertThat(sut.tryConsume("client1")).isZero();
+    assertThat(sut.tryConsume("client1")).isPositive();
+    assertThat(sut.tryConsume("client2")).isZero();
+  }
+
+  @Test
+  void tryConsume_shouldKeepTheNumberOfClientsBounded_andForgetTheLeastRecentlyUsed() {
+    ClientRateLimiter sut = new ClientRateLimiter(1, 1, 64, nowNanos::get);
+
+    assertThat(sut.tryConsume("active")).isZero();
+    for (int i = 0; i < 10_000; i++) {
+      sut.tryConsume("client" + i);
+      assertThat(sut.tryConsume("active"))
+          .as("The active client is never evicted, so its bucket stays empty")
+          .isPositive();
+    }
+
+    assertThat(sut.getClientCount()).isLessThanOrEqualTo(64);
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.example.parking.infra.admission;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.parking.application.exceptions.ApplicationError;
+import com.example.parking.application.exceptions.RateLimitExceededError;
+import com.example.parking.application.exceptions.ServiceSaturatedError;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SearchAdmissionControlTest {
+
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void execute_shouldReleaseThePermit_whenTheSearchThrows() {
+    SearchAdmissionControl sut = createAdmissionControl(1, 5000, 10, 1);
+
+    assertThatThrownBy(() -> sut.execute("client", () -> {
+      throw new ApplicationError("No provider nearby");
+    })).isInstanceOf(ApplicationError.class);
+
+    assertThat(inFlight()).isZero();
+    assertThat(sut.execute("client", () -> CompletableFuture.completedFuture("ok")))
+        .as("The only permit is available again")
+        .isCompletedWithValue("ok");
+  }
+
+  @Test
+  void execute_shouldReleaseThePermit_whenTheSearchFails() {
+    SearchAdmissionControl sut = createAdmissionControl(1, 5000, 10, 1);
+
+    CompletableFuture<String> result = sut.execute("client",
+        () -> CompletableFuture.failedFuture(new ApplicationError("No parking available")));
+
+    assertThatThrownBy(result::get).hasCauseInstanceOf(ApplicationError.class);
+    assertThat(inFlight()).isZero();
+    assertThat(limit()).as("A failure is a normal sample, not a drop").isEqualTo(1);
+  }
+
+  @Test
+  void execute_shouldFailAndReleaseThePermit_whenTheSearchDoesNotCompleteBeforeTheDeadline() {
+    SearchAdmissionControl sut = createAdmissionControl(10, 50, 10, 1);
+
+    // The upstream never answers
+    CompletableFuture<String> result = sut.execute("client", CompletableFuture::new);
+
+    assertThatThrownBy(result::get)
+        .isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(ServiceSaturatedError.class);
+    assertThat(inFlight()).isZero();
+    assertThat(limit()).as("The limit is divided by the backoff ratio").isEqualTo(5);
+    assertThat(meterRegistry.get("parking.search.timeouts").counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  void execute_shouldReject_whenTheLimitIsReached() {
+    SearchAdmissionControl sut = createAdmissionControl(1, 5000, 10, 1);
+    sut.execute("client", CompletableFuture::new);
+
+    assertThatThrownBy(() -> sut.execute("client", () -> CompletableFuture.completedFuture("ok")))
+        .isInstanceOf(ServiceSaturatedError.class);
+  }
+
+  @Test
+  void execute_shouldAskToRetryWhenTheNextTokenIsAvailable_whenTheClientExceedsItsRateLimit() {
+    // Burst of 1 request, then 1 request every 2 seconds
+    SearchAdmissionControl sut = createAdmissionControl(10, 5000, 1, 0.5);
+    sut.execute("client", () -> CompletableFuture.completedFuture("ok"));
+
+    assertThatThrownBy(() -> sut.execute("client", () -> CompletableFuture.completedFuture("ok")))
+        .isInstanceOfSatisfying(RateLimitExceededError.class,
+            e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(2));
+    assertThat(sut.execute("other client", () -> CompletableFuture.completedFuture("ok")))
+        .isCompletedWithValue("ok");
+  }
+
+  private SearchAdmissionControl createAdmissionControl(int limit, long timeoutMs, int rateLimitCapacity,
+      double refillPerSecond) {
+    return new SearchAdmissionControl(meterRegistry, limit, 1, limit, 2.0, 0.5, 1, timeoutMs,
+        rateLimitCapacity, refillPerSecond, 100);
+  }
+
+  private double inFlight() {
+    return meterRegistry.get("parking.search.concurrency.inflight").gauge().value();
+  }
+
+  private double limit() {
+    return meterRegistry.get("parking.search.concurrency.limit").gauge().value();
+  }
+
+}
@@ -0,0 +1,29 @@
+package com.example.parking.infra.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+
+@SpringBootTest(properties = { "spring.main.lazy-initialization=true", "parking.snapshot.dir=build/test-snapshots" })
+class StartupConfigTest {
+
+  @Autowired
+  private ConfigurableApplicationContext context;
+
+  @Test
+  void lazyProfile_shouldOnlyCreateTheSnapshotService_andNotTheApiClients() {
+    var beanFactory = context.getBeanFactory();
+
+    assertThat(beanFactory.containsSingleton("parkingSnapshotService"))
+        .as("The saved snapshots are loaded at startup")
+        .isTrue();
+    assertThat(beanFactory.containsSingleton("parkingProviderApiClientFactory")).isFalse();
+    assertThat(beanFactory.containsSingleton("grandPoitierApiClient")).isFalse();
+    assertThat(beanFactory.containsSingleton("parkingProviderRestClientBuilder")).isFalse();
+    assertThat(beanFactory.containsSingleton("parkingProviderRepository")).isFalse();
+  }
+
+}
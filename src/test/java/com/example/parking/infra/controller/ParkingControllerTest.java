@@ -0,0 +1,198 @@
+package com.example.parking.infra.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.parking.application.exceptions.ServiceSaturatedError;
+import com.example.parking.application.model.ParkingSearch;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.application.usecase.FindParkingsNearToCoordinatesUC;
+import com.example.parking.domain.ParkingProvider;
+import com.example.parking.infra.admission.SearchAdmissionControl;
+import com.example.parking.infra.config.ParkingResponseFormatConfig;
+
+@WebMvcTest(ParkingController.class)
+@Import({ ParkingResponseFormatConfig.class })
+class ParkingControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private FindParkingsNearToCoordinatesUC findParkingsNearToUC;
+
+  @MockBean
+  private SearchAdmissionControl searchAdmissionControl;
+
+  private ParkingProvider provider;
+
+  private long snapshotVersion;
+
+  @BeforeEach
+  void setUp() {
+    ParkingDtoOut parking = new ParkingDtoOut();
+    parking.setId(3);
+    parking.setLat(46.58);
+    parking.setLng(0.33);
+    parking.setName("THEATRE");
+    parking.setCapacity(320);
+    parking.setAvailablePlaces(46);
+    parking.setDistance_m(10);
+
+    provider = new ParkingProvider();
+    provider.setId(1);
+    provider.setName(ParkingProviderName.GrandPoitiers);
+    snapshotVersion = 1;
+
+    when(findParkingsNearToUC.prepare(anyDouble(), anyDouble()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(new ParkingSearch(provider,
+            new ParkingSnapshot(provider.getName(), snapshotVersion, Instant.now(), List.of(parking), false),
+            invocation.getArgument(0), invocation.getArgument(1), 42)));
+    when(findParkingsNearToUC.execute(any(ParkingSearch.class)))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(List.of(parking)));
+
+    // Every search is admitted
+    when(searchAdmissionControl.execute(anyString(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+  }
+
+  @Test
+  void findParkings_shouldReturnAllFieldsAsJson_byDefault() throws Exception {
+    mockMvc.perform(asyncDispatch(start(parkingsRequest())))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+        .andExpect(header().exists(HttpHeaders.ETAG))
+        .andExpect(jsonPath("$[0].id").value(3))
+        .andExpect(jsonPath("$[0].name").value("THEATRE"))
+        .andExpect(jsonPath("$[0].distance_m").value(10));
+  }
+
+  @Test
+  void findParkings_shouldReturnOnlyRequestedFields() throws Exception {
+    mockMvc.perform(asyncDispatch(start(parkingsRequest().param("fields", "id,availablePlaces"))))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].id").value(3))
+        .andExpect(jsonPath("$[0].availablePlaces").value(46))
+        .andExpect(jsonPath("$[0].name").doesNotExist())
+        .andExpect(jsonPath("$[0].distance_m").doesNotExist());
+  }
+
+  @Test
+  void findParkings_shouldReturnCbor_whenRequested() throws Exception {
+    mockMvc.perform(asyncDispatch(start(parkingsRequest().accept(MediaType.APPLICATION_CBOR))))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+  }
+
+  @Test
+  void findParkings_shouldReturnNotModified_whenETagMatches() throws Exception {
+    String eTag = mockMvc.perform(asyncDispatch(start(parkingsRequest())))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(asyncDispatch(start(parkingsRequest().header(HttpHeaders.IF_NONE_MATCH, eTag))))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, eTag))
+        .andExpect(content().string(Matchers.emptyString()));
+
+    verify(findParkingsNearToUC, times(1).description("The distances are not computed for the 304"))
+        .execute(any(ParkingSearch.class));
+  }
+
+  @Test
+  void findParkings_shouldChangeTheETag_whenTheSnapshotOrTheFormatChanges() throws Exception {
+    String jsonETag = eTagOf(parkingsRequest());
+    String cborETag = eTagOf(parkingsRequest().accept(MediaType.APPLICATION_CBOR));
+    snapshotVersion = 2;
+    String newVersionETag = eTagOf(parkingsRequest());
+
+    assertThat(jsonETag).isNotEqualTo(cborETag).isNotEqualTo(newVersionETag);
+  }
+
+  @Test
+  void findParkings_shouldNegotiateTheFormatWithTheQualityOfTheAcceptHeader() throws Exception {
+    mockMvc.perform(asyncDispatch(start(parkingsRequest()
+        .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_CBOR));
+  }
+
+  @Test
+  void findParkings_shouldReturnNotAcceptable_whenNoFormatMatches() throws Exception {
+    mockMvc.perform(parkingsRequest().accept(MediaType.APPLICATION_XML))
+        .andExpect(status().isNotAcceptable());
+  }
+
+  @Test
+  void findParkings_shouldReturnServiceUnavailable_whenSaturated() throws Exception {
+    doThrow(new ServiceSaturatedError("Service saturated, retry later", 2))
+        .when(searchAdmissionControl).execute(anyString(), any());
+
+    mockMvc.perform(parkingsRequest())
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"));
+  }
+
+  @Test
+  void findParkings_shouldNotTrustTheForwardedForHeader_forTheRateLimit() throws Exception {
+    mockMvc.perform(asyncDispatch(start(parkingsRequest()
+        .header("X-Forwarded-For", "203.0.113.7")
+        .with(request -> {
+          request.setRemoteAddr("10.0.0.12");
+          return request;
+        }))))
+        .andExpect(status().isOk());
+
+    verify(searchAdmissionControl).execute(eq("10.0.0.12"), any());
+  }
+
+  private MockHttpServletRequestBuilder parkingsRequest() {
+    return get("/api/parkings").param("lat", "46.58").param("lng", "0.33");
+  }
+
+  private String eTagOf(MockHttpServletRequestBuilder request) throws Exception {
+    return mockMvc.perform(asyncDispatch(start(request)))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+  }
+
+  private MvcResult start(MockHttpServletRequestBuilder request) throws Exception {
+    return mockMvc.perform(request)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+  }
+
+}
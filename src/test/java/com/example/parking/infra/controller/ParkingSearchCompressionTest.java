@@ -0,0 +1,88 @@
+package com.example.parking.infra.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+
+import com.example.parking.application.model.ParkingSearch;
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.application.usecase.FindParkingsNearToCoordinatesUC;
+import com.example.parking.domain.ParkingProvider;
+
+/**
+ * Runs the real Tomcat since the compression is done by its connector, MockMvc does not compress anything.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = { "parking.snapshot.dir=build/test-snapshots" })
+class ParkingSearchCompressionTest {
+
+  @LocalServerPort
+  private int port;
+
+  @MockBean
+  private FindParkingsNearToCoordinatesUC findParkingsNearToUC;
+
+  @BeforeEach
+  void setUp() {
+    ParkingProvider provider = new ParkingProvider();
+    provider.setId(1);
+    provider.setName(ParkingProviderName.GrandPoitiers);
+
+    List<ParkingDtoOut> parkings = IntStream.range(0, 100)
+        .mapToObj(id -> {
+          ParkingDtoOut parking = new ParkingDtoOut();
+          parking.setId(id);
+          parking.setLat(46.58 + id / 1000.0);
+          parking.setLng(0.33 + id / 1000.0);
+          parking.setName("PARKING " + id);
+          parking.setCapacity(300);
+          parking.setAvailablePlaces(id);
+          parking.setDistance_m(id * 10);
+          return parking;
+        })
+        .toList();
+
+    when(findParkingsNearToUC.prepare(anyDouble(), anyDouble()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(new ParkingSearch(provider,
+            new ParkingSnapshot(provider.getName(), 1, Instant.now(), parkings, false),
+            invocation.getArgument(0), invocation.getArgument(1), 42)));
+    when(findParkingsNearToUC.execute(any(ParkingSearch.class)))
+        .thenReturn(CompletableFuture.completedFuture(parkings));
+  }
+
+  @Test
+  void findParkings_shouldGzipALargeResponse() throws Exception {
+
+    // When
+    HttpResponse<byte[]> response = HttpClient.newHttpClient().send(
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/parkings?lat=46.58&lng=0.33"))
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+
+    // Then
+    assertThat(response.statusCode()).isEqualTo(200);
+    assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+    assertThat(response.headers().firstValue(HttpHeaders.ETAG)).get().asString().startsWith("W/\"");
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.example.parking.infra.controller;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.application.service.ParkingSnapshotService;
+import com.example.parking.infra.persistence.snapshot.ParkingSnapshotCodec;
+import com.example.parking.infra.service.HttpParkingSnapshotPublisher;
+
+@WebMvcTest(controllers = ParkingSnapshotController.class,
+    properties = { "parking.cluster.enabled=true", "parking.cluster.token=s3cret" })
+class ParkingSnapshotControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private ParkingSnapshotService parkingSnapshotService;
+
+  @Test
+  void receiveSnapshot_shouldAcceptTheSnapshot_whenTheTokenIsValid() throws Exception {
+    mockMvc.perform(snapshotRequest().header(HttpParkingSnapshotPublisher.CLUSTER_TOKEN_HEADER, "s3cret"))
+        .andExpect(status().isNoContent());
+
+    verify(parkingSnapshotService).accept(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void receiveSnapshot_shouldBeForbidden_whenTheTokenIsMissing() throws Exception {
+    mockMvc.perform(snapshotRequest())
+        .andExpect(status().isForbidden());
+
+    verify(parkingSnapshotService, never()).accept(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void receiveSnapshot_shouldBeForbidden_whenTheTokenIsWrong() throws Exception {
+    mockMvc.perform(snapshotRequest().header(HttpParkingSnapshotPublisher.CLUSTER_TOKEN_HEADER, "guess"))
+        .andExpect(status().isForbidden());
+
+    verify(parkingSnapshotService, never()).accept(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void receiveSnapshot_shouldBeABadRequest_whenTheProviderNameIsMissing() throws Exception {
+    // A valid checksum but a null provider name
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + 2 + 8 + 8 + 4 + 4);
+    buffer.putInt(0x49505331).putShort((short) 1).putShort((short) -1).putLong(1).putLong(0).putInt(0);
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+
+    mockMvc.perform(post(HttpParkingSnapshotPublisher.SNAPSHOTS_PATH)
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .header(HttpParkingSnapshotPublisher.CLUSTER_TOKEN_HEADER, "s3cret")
+        .content(buffer.array()))
+        .andExpect(status().isBadRequest());
+
+    verify(parkingSnapshotService, never()).accept(any(ParkingSnapshot.class));
+  }
+
+  @Test
+  void shouldNotStart_withoutAToken() {
+    assertThatThrownBy(() -> new ParkingSnapshotController(parkingSnapshotService, " "))
+        .isInstanceOf(IllegalStateException.class);
+  }
+
+  private MockHttpServletRequestBuilder snapshotRequest() {
+    ParkingSnapshot snapshot = new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 1, Instant.now(), List.of(),
+        false);
+    return post(HttpParkingSnapshotPublisher.SNAPSHOTS_PATH)
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .content(ParkingSnapshotCodec.encode(snapshot));
+  }
+
+}
@@ -0,0 +1,184 @@
+package com.example.parking.infra.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+class ParkingSnapshotRepositoryTest {
+
+  @TempDir
+  private Path directory;
+
+  private ParkingSnapshotRepository sut;
+
+  @BeforeEach
+  void setUp() {
+    sut = new ParkingSnapshotRepository(directory);
+  }
+
+  @Test
+  void loadAll_shouldReturnTheSavedSnapshots_markedAsStale() throws Exception {
+
+    // Given
+    ParkingSnapshot snapshot = new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 42,
+        Instant.ofEpochMilli(1_700_000_000_000L),
+        List.of(
+            createParkingDto(3, 46.58383455409422, 0.33779491061805567, "THEATRE", 320, 46),
+            createParkingDto(12, 46.58595804860371, 0.3512954265806957, null, null, null)),
+        false);
+
+    // When
+    sut.save(snapshot).get();
+    List<ParkingSnapshot> result = sut.loadAll();
+
+    // Then
+    assertThat(result).hasSize(1);
+    ParkingSnapshot loaded = result.get(0);
+    assertThat(loaded.providerName()).isEqualTo(ParkingProviderName.GrandPoitiers);
+    assertThat(loaded.version()).isEqualTo(42);
+    assertThat(loaded.fetchedAt()).isEqualTo(snapshot.fetchedAt());
+    assertThat(loaded.stale())
+        .as("A snapshot read from the disk is stale")
+        .isTrue();
+    assertThat(loaded.parkings())
+        .usingRecursiveFieldByFieldElementComparator()
+        .containsExactlyElementsOf(snapshot.parkings());
+  }
+
+  @Test
+  void loadAll_shouldIgnoreCorruptedSnapshots() throws Exception {
+
+    // Given
+    ParkingSnapshot snapshot = new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 1, Instant.now(),
+        List.of(createParkingDto(3, 46.58, 0.33, "THEATRE", 320, 46)), false);
+    sut.save(snapshot).get();
+
+    Path file = directory.resolve("GrandPoitiers.snapshot");
+    byte[] content = Files.readAllBytes(file);
+    content[content.length / 2] ^= 0x7F;
+    Files.write(file, content);
+
+    // When
+    List<ParkingSnapshot> result = sut.loadAll();
+
+    // Then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  void save_shouldKeepTheMostRecentSnapshot_whenTheSavesAreConcurrent() throws Exception {
+
+    // Given
+    List<ParkingSnapshot> snapshots = IntStream.rangeClosed(1, 50)
+        .mapToObj(version -> new ParkingSnapshot(ParkingProviderName.GrandPoitiers, version, Instant.now(),
+            List.of(createParkingDto(3, 46.58, 0.33, "THEATRE", 320, version)), false))
+        .collect(Collectors.toCollection(ArrayList::new));
+    Collections.shuffle(snapshots);
+
+    // When
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      CompletableFuture.allOf(snapshots.stream()
+          .map(snapshot -> CompletableFuture.supplyAsync(() -> sut.save(snapshot), executor)
+              .thenCompose(save -> save))
+          .toArray(CompletableFuture[]::new))
+          .get();
+    }
+    finally {
+      executor.shutdown();
+    }
+
+    // Then
+    assertThat(new ParkingSnapshotRepository(directory).loadAll())
+        .singleElement()
+        .extracting(ParkingSnapshot::version)
+        .isEqualTo(50L);
+  }
+
+  @Test
+  void save_shouldNotReplaceAMoreRecentSnapshotSavedBeforeARestart() throws Exception {
+
+    // Given
+    sut.save(new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 2, Instant.now(), List.of(), false)).get();
+    sut = new ParkingSnapshotRepository(directory);
+
+    // When
+    sut.save(new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 1, Instant.now(), List.of(), false)).get();
+
+    // Then
+    assertThat(sut.loadAll()).singleElement().extracting(ParkingSnapshot::version).isEqualTo(2L);
+  }
+
+  @Test
+  void loadAll_shouldIgnoreASnapshotWithoutProviderName() throws Exception {
+
+    // Given: a valid checksum but a null provider name
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 2 + 2 + 8 + 8 + 4 + 4);
+    buffer.putInt(0x49505331).putShort((short) 1).putShort((short) -1).putLong(1).putLong(0).putInt(0);
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+    Files.write(directory.resolve("GrandPoitiers.snapshot"), buffer.array());
+
+    // When
+    List<ParkingSnapshot> result = sut.loadAll();
+
+    // Then
+    assertThat(result).isEmpty();
+  }
+
+  @Test
+  void loadAll_shouldIgnoreASnapshotOfAnotherProviderThanItsFileName() throws Exception {
+
+    // Given
+    sut.save(new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 1, Instant.now(), List.of(), false)).get();
+    Files.copy(directory.resolve("GrandPoitiers.snapshot"), directory.resolve("Other.snapshot"));
+
+    // When
+    List<ParkingSnapshot> result = sut.loadAll();
+
+    // Then
+    assertThat(result).singleElement().extracting(ParkingSnapshot::providerName)
+        .isEqualTo(ParkingProviderName.GrandPoitiers);
+  }
+
+  @Test
+  void loadAll_shouldReturnNothing_whenTheDirectoryDoesNotExist() {
+    sut = new ParkingSnapshotRepository(directory.resolve("missing"));
+
+    assertThat(sut.loadAll()).isEmpty();
+  }
+
+  private ParkingDtoOut createParkingDto(int id, double lat, double lng, String name, Integer capacity,
+      Integer availablePlaces) {
+    ParkingDtoOut dto = new ParkingDtoOut();
+    dto.setId(id);
+    dto.setLat(lat);
+    dto.setLng(lng);
+    dto.setName(name);
+    dto.setCapacity(capacity);
+    dto.setAvailablePlaces(availablePlaces);
+    return dto;
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.example.parking.infra.persistence.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+
+class ProviderLeaseRepositoryTest {
+
+  private static final ParkingProviderName PROVIDER = ParkingProviderName.GrandPoitiers;
+
+  private static final Duration TTL = Duration.ofMinutes(1);
+
+  @TempDir
+  private Path directory;
+
+  private ProviderLeaseRepository sut;
+
+  @BeforeEach
+  void setUp() {
+    sut = new ProviderLeaseRepository(directory);
+  }
+
+  @Test
+  void tryAcquire_shouldGiveTheLeaseToASingleNode() {
+    assertThat(sut.tryAcquire(PROVIDER, "node1", TTL)).isTrue();
+    assertThat(sut.tryAcquire(PROVIDER, "node2", TTL))
+        .as("The lease is owned by node1")
+        .isFalse();
+    assertThat(sut.tryAcquire(PROVIDER, "node1", TTL))
+        .as("The owner can renew its lease")
+        .isTrue();
+  }
+
+  @Test
+  void tryAcquire_shouldLetAnotherNodeTakeOver_whenTheLeaseExpired() {
+    sut.tryAcquire(PROVIDER, "node1", Duration.ZERO);
+
+    assertThat(sut.tryAcquire(PROVIDER, "node2", TTL)).isTrue();
+    assertThat(sut.tryAcquire(PROVIDER, "node1", TTL)).isFalse();
+  }
+
+  @Test
+  void release_shouldLetAnotherNodeTakeOver_onlyIfCalledByTheOwner() {
+    sut.tryAcquire(PROVIDER, "node1", TTL);
+
+    sut.release(PROVIDER, "node2");
+    assertThat(sut.tryAcquire(PROVIDER, "node2", TTL)).isFalse();
+
+    sut.release(PROVIDER, "node1");
+    assertThat(sut.tryAcquire(PROVIDER, "node2", TTL)).isTrue();
+  }
+
+  @Test
+  void tryAcquire_shouldSeeTheLeasesOfTheOtherReplicas() {
+    ProviderLeaseRepository otherReplica = new ProviderLeaseRepository(directory);
+
+    assertThat(sut.tryAcquire(PROVIDER, "node1", TTL)).isTrue();
+    assertThat(otherReplica.tryAcquire(PROVIDER, "node2", TTL)).isFalse();
+  }
+
+}
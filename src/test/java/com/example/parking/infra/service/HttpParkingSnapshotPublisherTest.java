@@ -0,0 +1,129 @@
+package com.example.parking.infra.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.client.RestClientTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import com.example.parking.application.model.ParkingSnapshot;
+import com.example.parking.application.model.out.ParkingDtoOut;
+import com.example.parking.application.service.ParkingProviderApiClient.ParkingProviderName;
+import com.example.parking.infra.config.ClusterRestClientConfig;
+import com.example.parking.infra.persistence.snapshot.ParkingSnapshotCodec;
+import com.sun.net.httpserver.HttpServer;
+
+@RestClientTest
+@Import({ ClusterRestClientConfig.class })
+class HttpParkingSnapshotPublisherTest {
+
+  private HttpParkingSnapshotPublisher sut;
+
+  @Autowired
+  @Qualifier("clusterRestClientBuilder")
+  private RestClient.Builder restClientBuilder;
+
+  private MockRestServiceServer mockServer;
+
+  @BeforeEach
+  void setUp() {
+    // The replicas are called in parallel
+    mockServer = MockRestServiceServer.bindTo(restClientBuilder).ignoreExpectOrder(true).build();
+
+    sut = new HttpParkingSnapshotPublisher(restClientBuilder,
+        List.of("http://replica-1:8080", " http://replica-2:8080 ", ""), "s3cret");
+  }
+
+  @Test
+  void publish_shouldSendTheSnapshotToEachPeer_evenIfOneFails() throws Exception {
+
+    // Arrange
+    ParkingDtoOut parking = new ParkingDtoOut();
+    parking.setId(3);
+    parking.setName("THEATRE");
+    parking.setAvailablePlaces(46);
+    ParkingSnapshot snapshot = new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 7, Instant.now(),
+        List.of(parking), false);
+
+    mockServer.expect(requestTo("http://replica-1:8080/api/internal/snapshots"))
+        .andExpect(method(HttpMethod.POST))
+        .andRespond(withServerError());
+    mockServer.expect(requestTo("http://replica-2:8080/api/internal/snapshots"))
+        .andExpect(method(HttpMethod.POST))
+        .andExpect(header(HttpParkingSnapshotPublisher.CLUSTER_TOKEN_HEADER, "s3cret"))
+        .andExpect(request -> {
+          ParkingSnapshot received = ParkingSnapshotCodec.decode(
+              ByteBuffer.wrap(((MockClientHttpRequest) request).getBodyAsBytes()));
+          assertThat(received.version()).isEqualTo(7);
+          assertThat(received.parkings()).usingRecursiveFieldByFieldElementComparator().containsExactly(parking);
+        })
+        .andRespond(withNoContent());
+
+    // Act
+    sut.publish(snapshot).get();
+
+    // Assert
+    mockServer.verify();
+  }
+
+  @Test
+  void publish_shouldNotBeDelayedByAReplicaThatDoesNotAnswer() throws Exception {
+
+    // Arrange: the first replica accepts the connections but never answers
+    CountDownLatch received = new CountDownLatch(1);
+    HttpServer replica = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    replica.createContext(HttpParkingSnapshotPublisher.SNAPSHOTS_PATH, exchange -> {
+      exchange.getRequestBody().readAllBytes();
+      exchange.sendResponseHeaders(204, -1);
+      exchange.close();
+      received.countDown();
+    });
+    replica.start();
+
+    try (ServerSocket hungReplica = new ServerSocket(0, 10, InetAddress.getLoopbackAddress())) {
+      sut = new HttpParkingSnapshotPublisher(new ClusterRestClientConfig().clusterRestClientBuilder(1000, 1500),
+          List.of("http://localhost:" + hungReplica.getLocalPort(),
+              "http://localhost:" + replica.getAddress().getPort()),
+          "s3cret");
+      ParkingSnapshot snapshot = new ParkingSnapshot(ParkingProviderName.GrandPoitiers, 7, Instant.now(), List.of(),
+          false);
+
+      // Act
+      CompletableFuture<Void> publish = sut.publish(snapshot);
+
+      // Assert
+      assertThat(received.await(1, TimeUnit.SECONDS))
+          .as("The second replica receives the snapshot before the timeout of the first one")
+          .isTrue();
+      assertThat(publish).isNotDone();
+      publish.get(5, TimeUnit.SECONDS);
+    }
+    finally {
+      replica.stop(0);
+      sut.shutdown();
+    }
+  }
+
+}
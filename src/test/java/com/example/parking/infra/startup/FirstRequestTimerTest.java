@@ -0,0 +1,46 @@
+package com.example.parking.infra.startup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class FirstRequestTimerTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private FirstRequestTimer sut;
+
+  @BeforeEach
+  void setUp() {
+    sut = new FirstRequestTimer("/actuator");
+    sut.bindTo(meterRegistry);
+  }
+
+  @Test
+  void shouldIgnoreTheActuatorRequests() throws Exception {
+    serve("/actuator/health");
+    serve("/actuator");
+
+    assertThat(firstRequestTime()).isNaN();
+
+    serve("/api/parkings");
+
+    assertThat(firstRequestTime()).isPositive();
+  }
+
+  private void serve(String path) throws Exception {
+    sut.doFilter(new MockHttpServletRequest("GET", path), new MockHttpServletResponse(), new MockFilterChain());
+  }
+
+  private double firstRequestTime() {
+    return meterRegistry.get("application.first.request.time").timeGauge().value();
+  }
+
+}